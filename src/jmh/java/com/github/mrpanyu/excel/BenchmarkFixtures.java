@@ -0,0 +1,136 @@
+package com.github.mrpanyu.excel;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * 基准测试用的数据生成
+ */
+final class BenchmarkFixtures {
+
+	private static final String[][] PROVINCE_CITIES = { { "110000", "110100" }, { "120000", "120100" },
+			{ "130000", "130100" }, { "130000", "130200" }, { "130000", "130300" }, { "140000", "140100" },
+			{ "140000", "140200" }, { "140000", "140300" } };
+
+	/**
+	 * 生成用户模型数据，包含下拉及级联下拉列
+	 *
+	 * @param rows       行数
+	 * @param errorRatio 有错误的行所占比例（0~1），有错误的行姓名为空且城市与省份不匹配
+	 */
+	static List<Object> createUsers(int rows, double errorRatio) {
+		List<Object> users = new ArrayList<Object>(rows);
+		int errorEvery = errorRatio <= 0 ? 0 : (int) Math.round(1 / errorRatio);
+		for (int i = 0; i < rows; i++) {
+			DemoUserExcelModel user = new DemoUserExcelModel();
+			String[] provinceCity = PROVINCE_CITIES[i % PROVINCE_CITIES.length];
+			boolean error = errorEvery > 0 && i % errorEvery == 0;
+			user.setUserCode(String.valueOf(100000 + i));
+			user.setUserName(error ? "" : "用户" + i);
+			user.setIdcardNo("120102199205200003");
+			user.setMobile("13172727272");
+			user.setAge(20 + i % 40);
+			user.setBirthday(new Date(631152000000L + i * 86400000L));
+			user.setGender(String.valueOf(i % 2));
+			user.setJobType("0" + (1 + i % 3));
+			user.setHomeProvince(provinceCity[0]);
+			user.setHomeCity(error ? "110100" : provinceCity[1]);
+			users.add(user);
+		}
+		return users;
+	}
+
+	/** 生成单sheet页的用户导入文件 */
+	static byte[] createUserFile(int rows, double errorRatio) {
+		List<List<Object>> data = new ArrayList<List<Object>>();
+		data.add(createUsers(rows, errorRatio));
+		return ExcelImportExportTools.exp(data, ExcelExportOptions.streaming(), DemoUserExcelModel.class);
+	}
+
+	/** 生成只有格式没有值的导入文件（如格式设置到很多行的用户文件），列头之后的blankRows行每个单元格都有样式 */
+	static byte[] createFormattedEmptyFile(int blankRows) throws Exception {
+		List<ExcelColumnInfo> columnInfos = ExcelModelDescriptor.of(DemoUserExcelModel.class).columns;
+		SXSSFWorkbook wb = new SXSSFWorkbook(100);
+		try {
+			CellStyle style = wb.createCellStyle();
+			style.setBorderBottom(BorderStyle.THIN);
+			Sheet sheet = wb.createSheet("data");
+			Row header = sheet.createRow(0);
+			for (int c = 0; c < columnInfos.size(); c++) {
+				header.createCell(c).setCellValue(columnInfos.get(c).annotation.name());
+			}
+			for (int r = 1; r <= blankRows; r++) {
+				Row row = sheet.createRow(r);
+				for (int c = 0; c < columnInfos.size(); c++) {
+					row.createCell(c).setCellStyle(style);
+				}
+			}
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			wb.write(out);
+			return out.toByteArray();
+		} finally {
+			wb.dispose();
+			wb.close();
+		}
+	}
+
+	/** 生成rows行columns列的工作簿，文本、整数、小数、日期列交替 */
+	static byte[] createCellWorkbook(int rows, int columns) throws Exception {
+		SXSSFWorkbook wb = new SXSSFWorkbook(100);
+		try {
+			CellStyle intStyle = wb.createCellStyle();
+			intStyle.setDataFormat(wb.createDataFormat().getFormat("0"));
+			CellStyle decimalStyle = wb.createCellStyle();
+			decimalStyle.setDataFormat(wb.createDataFormat().getFormat("0.00"));
+			CellStyle dateStyle = wb.createCellStyle();
+			dateStyle.setDataFormat(wb.createDataFormat().getFormat("yyyy-MM-dd"));
+			Date date = new Date();
+			Sheet sheet = wb.createSheet("data");
+			Row header = sheet.createRow(0);
+			for (int c = 0; c < columns; c++) {
+				header.createCell(c).setCellValue("列" + c);
+			}
+			for (int r = 1; r <= rows; r++) {
+				Row row = sheet.createRow(r);
+				for (int c = 0; c < columns; c++) {
+					Cell cell = row.createCell(c);
+					switch (c % 4) {
+					case 0:
+						cell.setCellValue("文本" + r);
+						break;
+					case 1:
+						cell.setCellValue(r);
+						cell.setCellStyle(intStyle);
+						break;
+					case 2:
+						cell.setCellValue(r / 7.0);
+						cell.setCellStyle(decimalStyle);
+						break;
+					default:
+						cell.setCellValue(date);
+						cell.setCellStyle(dateStyle);
+					}
+				}
+			}
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			wb.write(out);
+			return out.toByteArray();
+		} finally {
+			wb.dispose();
+			wb.close();
+		}
+	}
+
+	private BenchmarkFixtures() {
+	}
+
+}
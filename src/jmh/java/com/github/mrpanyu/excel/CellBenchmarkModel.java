@@ -0,0 +1,57 @@
+package com.github.mrpanyu.excel;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * 单元格读取基准测试用的模型，列类型与{@link BenchmarkFixtures#createCellWorkbook(int, int)}生成的前4列一致
+ */
+@ExcelSheet(name = "data")
+@SuppressWarnings("serial")
+public class CellBenchmarkModel extends ExcelModelBase {
+
+	@ExcelColumn(name = "文本")
+	private String text;
+
+	@ExcelColumn(name = "整数")
+	private int intValue;
+
+	@ExcelColumn(name = "小数")
+	private BigDecimal decimalValue;
+
+	@ExcelColumn(name = "日期", dateFormat = "yyyy-MM-dd")
+	private Date date;
+
+	public String getText() {
+		return text;
+	}
+
+	public void setText(String text) {
+		this.text = text;
+	}
+
+	public int getIntValue() {
+		return intValue;
+	}
+
+	public void setIntValue(int intValue) {
+		this.intValue = intValue;
+	}
+
+	public BigDecimal getDecimalValue() {
+		return decimalValue;
+	}
+
+	public void setDecimalValue(BigDecimal decimalValue) {
+		this.decimalValue = decimalValue;
+	}
+
+	public Date getDate() {
+		return date;
+	}
+
+	public void setDate(Date date) {
+		this.date = date;
+	}
+
+}
@@ -0,0 +1,115 @@
+package com.github.mrpanyu.excel;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 逐单元格读取的基准测试：单元格字符串值（每个单元格新建格式化器 与 共用{@link ExcelCellReader}）、数字单元格直接取值，以及按模型转换整行
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 15, time = 2)
+@Fork(value = 3, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class CellReaderBenchmark {
+
+	/**
+	 * 行数默认1万行：10万行×20列的工作簿加载后约需3GB以上堆内存，importRows需要再加载一份，4GB堆内存下内存溢出，
+	 * 其他基准的耗时也主要是GC（GC时间占80%以上），结果不能反映单元格读取本身。内存充足时可以通过-p rows=100000运行
+	 */
+	@Param({ "10000" })
+	public int rows;
+
+	@Param({ "20" })
+	public int columns;
+
+	private byte[] data;
+	private Workbook wb;
+	private List<ExcelColumnInfo> columnInfos;
+
+	@Setup
+	public void setup() throws Exception {
+		data = BenchmarkFixtures.createCellWorkbook(rows, columns);
+		wb = new XSSFWorkbook(new ByteArrayInputStream(data));
+		columnInfos = ExcelModelDescriptor.of(CellBenchmarkModel.class).columns;
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		wb.close();
+	}
+
+	/** 对比基准：每个单元格新建公式计算器和格式化器 */
+	@Benchmark
+	public void getCellValueAsStringPerCell(Blackhole blackhole) {
+		Sheet sheet = wb.getSheetAt(0);
+		for (int r = 1; r <= sheet.getLastRowNum(); r++) {
+			Row row = sheet.getRow(r);
+			for (int c = 0; c < columns; c++) {
+				FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+				DataFormatter dataFormatter = new DataFormatter();
+				blackhole.consume(dataFormatter.formatCellValue(row.getCell(c), evaluator));
+			}
+		}
+	}
+
+	@Benchmark
+	public void getCellValueAsString(Blackhole blackhole) {
+		Sheet sheet = wb.getSheetAt(0);
+		ExcelCellReader cellReader = new ExcelCellReader(wb);
+		for (int r = 1; r <= sheet.getLastRowNum(); r++) {
+			Row row = sheet.getRow(r);
+			for (int c = 0; c < columns; c++) {
+				blackhole.consume(cellReader.getCellValueAsString(row.getCell(c)));
+			}
+		}
+	}
+
+	/** 数字及日期单元格按属性类型直接取值 */
+	@Benchmark
+	public void getTypedCellValue(Blackhole blackhole) {
+		Sheet sheet = wb.getSheetAt(0);
+		ExcelCellReader cellReader = new ExcelCellReader(wb);
+		for (int r = 1; r <= sheet.getLastRowNum(); r++) {
+			Row row = sheet.getRow(r);
+			for (int c = 0; c < columns; c++) {
+				Cell cell = row.getCell(c);
+				if (cell.getCellTypeEnum() == CellType.NUMERIC) {
+					blackhole.consume(cellReader.getTypedCellValue(cell, columnInfos.get(c % 4)));
+				}
+			}
+		}
+	}
+
+	/** 按模型读取单元格值并转换为模型对象（含校验），只读取模型对应的前4列 */
+	@Benchmark
+	public List<List<Object>> importRows() {
+		return ExcelImportExportTools.imp(data, CellBenchmarkModel.class);
+	}
+
+}
@@ -0,0 +1,113 @@
+package com.github.mrpanyu.excel;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 导入导出整体的基准测试，使用{@link DemoUserExcelModel}（包含下拉及级联下拉列、校验标注）
+ * <p>
+ * 错误文件相关的基准使用20%的行有错误（姓名为空、城市与省份不匹配）的数据。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 15, time = 2)
+@Fork(value = 3, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class ImportExportBenchmark {
+
+	@Param({ "1000", "10000" })
+	public int rows;
+
+	private byte[] userFile;
+	private List<List<Object>> users;
+	private byte[] errorFile;
+	private List<List<Object>> errorUsers;
+	private byte[] formattedEmptyFile;
+
+	@Setup
+	public void setup() throws Exception {
+		userFile = BenchmarkFixtures.createUserFile(rows, 0);
+		users = new ArrayList<List<Object>>();
+		users.add(BenchmarkFixtures.createUsers(rows, 0));
+		errorFile = BenchmarkFixtures.createUserFile(rows, 0.2);
+		errorUsers = ExcelImportExportTools.imp(errorFile, DemoUserExcelModel.class);
+		formattedEmptyFile = BenchmarkFixtures.createFormattedEmptyFile(rows * 10);
+	}
+
+	@Benchmark
+	public List<List<Object>> imp() {
+		return ExcelImportExportTools.imp(userFile, DemoUserExcelModel.class);
+	}
+
+	@Benchmark
+	public List<List<Object>> impStreaming() {
+		return ExcelImportExportTools.impStreaming(new ByteArrayInputStream(userFile), DemoUserExcelModel.class);
+	}
+
+	@Benchmark
+	public List<List<Object>> impPipeline() {
+		return ExcelImportExportTools.imp(ExcelImportOptions.pipeline(), userFile, DemoUserExcelModel.class);
+	}
+
+	/** 只有格式没有值的文件（行数为rows的10倍），空行按单元格类型判断，不读取单元格的值 */
+	@Benchmark
+	public List<List<Object>> impFormattedEmpty() {
+		return ExcelImportExportTools.imp(formattedEmptyFile, DemoUserExcelModel.class);
+	}
+
+	/** 只有格式没有值的文件，连续100个空行后停止解析 */
+	@Benchmark
+	public List<List<Object>> impStreamingFormattedEmpty() {
+		ExcelImportOptions options = new ExcelImportOptions();
+		options.setMaxConsecutiveBlankRows(100);
+		return ExcelImportExportTools.impStreaming(options, new ByteArrayInputStream(formattedEmptyFile),
+				DemoUserExcelModel.class);
+	}
+
+	@Benchmark
+	public byte[] exp() {
+		return ExcelImportExportTools.exp(users, DemoUserExcelModel.class);
+	}
+
+	@Benchmark
+	public byte[] expStreaming() {
+		return ExcelImportExportTools.exp(users, ExcelExportOptions.streaming(), DemoUserExcelModel.class);
+	}
+
+	@Benchmark
+	public byte[] impTemplate() {
+		return ExcelImportExportTools.impTemplate(DemoUserExcelModel.class);
+	}
+
+	/** 导入后重新导出全部数据（含错误标注） */
+	@Benchmark
+	public byte[] expErrors() {
+		return ExcelImportExportTools.exp(errorUsers, DemoUserExcelModel.class);
+	}
+
+	@Benchmark
+	public byte[] expErrorRowsOnly() {
+		return ExcelImportExportTools.exp(errorUsers, ExcelExportOptions.errorRowsOnly(), DemoUserExcelModel.class);
+	}
+
+	@Benchmark
+	public byte[] expErrorsInPlace() {
+		return ExcelImportExportTools.expErrorsInPlace(errorFile, errorUsers, DemoUserExcelModel.class);
+	}
+
+}
@@ -0,0 +1,110 @@
+package com.github.mrpanyu.excel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.metadata.BeanDescriptor;
+
+import org.hibernate.validator.HibernateValidator;
+
+/**
+ * 批量校验器的默认实现，使用Bean Validation（Hibernate Validator）校验
+ * <p>
+ * Validator只创建一次，在所有导入间共用（Validator是线程安全的）。每个模型类的约束信息（{@link BeanDescriptor}）首次校验时查询并缓存，没有任何约束的模型类直接跳过校验。
+ * 指定columnsOnly时只通过{@link Validator#validateProperty(Object, String, Class...)}校验Excel列对应的属性，忽略其他属性及类级别的约束。
+ */
+public class DefaultExcelBatchValidator implements ExcelBatchValidator {
+
+	private static final Validator VALIDATOR = Validation.byProvider(HibernateValidator.class).configure()
+			.buildValidatorFactory().getValidator();
+
+	/** 各模型类需要校验的属性，以模型类为弱引用键（值不引用模型类） */
+	private final Map<Class<?>, String[]> constrainedColumnsCache = Collections
+			.synchronizedMap(new WeakHashMap<Class<?>, String[]>());
+	private final Map<Class<?>, Boolean> beanConstrainedCache = Collections
+			.synchronizedMap(new WeakHashMap<Class<?>, Boolean>());
+
+	private final boolean columnsOnly;
+
+	public DefaultExcelBatchValidator() {
+		this(false);
+	}
+
+	/**
+	 * @param columnsOnly 是否只校验Excel列对应的属性
+	 */
+	public DefaultExcelBatchValidator(boolean columnsOnly) {
+		this.columnsOnly = columnsOnly;
+	}
+
+	@Override
+	public void validate(Class<?> modelClass, List<? extends ExcelModelBase> models) {
+		if (columnsOnly) {
+			String[] properties = getConstrainedColumns(modelClass);
+			if (properties.length == 0) {
+				return;
+			}
+			for (ExcelModelBase model : models) {
+				for (String property : properties) {
+					addErrors(model, VALIDATOR.validateProperty(model, property));
+				}
+			}
+		} else {
+			if (!isBeanConstrained(modelClass)) {
+				return;
+			}
+			for (ExcelModelBase model : models) {
+				addErrors(model, VALIDATOR.validate(model));
+			}
+		}
+	}
+
+	public boolean isColumnsOnly() {
+		return columnsOnly;
+	}
+
+	/** 校验错误记录到模型对象中 */
+	private void addErrors(ExcelModelBase model, Set<ConstraintViolation<ExcelModelBase>> violations) {
+		for (ConstraintViolation<ExcelModelBase> violation : violations) {
+			String fieldName = violation.getPropertyPath().iterator().next().getName();
+			String error = violation.getMessage();
+			// 如果已经有解析错误了，先不增加额外的错误信息
+			if (!model.hasFieldError(fieldName)) {
+				model.addFieldError(fieldName, error);
+			}
+		}
+	}
+
+	private boolean isBeanConstrained(Class<?> modelClass) {
+		Boolean constrained = beanConstrainedCache.get(modelClass);
+		if (constrained == null) {
+			constrained = VALIDATOR.getConstraintsForClass(modelClass).isBeanConstrained();
+			beanConstrainedCache.put(modelClass, constrained);
+		}
+		return constrained;
+	}
+
+	private String[] getConstrainedColumns(Class<?> modelClass) {
+		String[] properties = constrainedColumnsCache.get(modelClass);
+		if (properties == null) {
+			BeanDescriptor beanDescriptor = VALIDATOR.getConstraintsForClass(modelClass);
+			List<String> list = new ArrayList<String>();
+			for (ExcelColumnInfo columnInfo : ExcelModelDescriptor.of(modelClass).columns) {
+				if (beanDescriptor.getConstraintsForProperty(columnInfo.name) != null) {
+					list.add(columnInfo.name);
+				}
+			}
+			properties = list.toArray(new String[list.size()]);
+			constrainedColumnsCache.put(modelClass, properties);
+		}
+		return properties;
+	}
+
+}
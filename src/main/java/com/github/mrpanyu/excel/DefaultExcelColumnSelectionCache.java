@@ -0,0 +1,362 @@
+package com.github.mrpanyu.excel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 下拉选项缓存的默认实现，按（提供者类，可选值类型）缓存
+ * <p>
+ * 支持以下功能：
+ * <ul>
+ * <li>容量限制：超出{@link #setMaxSize(int)}时淘汰最久未使用的项</li>
+ * <li>过期时间：加载后超过{@link #setExpireAfterMillis(long)}的项重新同步加载</li>
+ * <li>提前刷新：加载后超过{@link #setRefreshAfterMillis(long)}（小于过期时间）的项在后台异步重新加载，期间仍返回旧值，导入导出不需要等待提供者</li>
+ * <li>统计：命中、未命中、加载、加载失败、淘汰次数</li>
+ * </ul>
+ * 同一项同时未命中时只调用一次提供者，其他线程等待同一次加载的结果；加载期间调用了{@link #invalidate(Class, String)}或{@link #invalidateAll()}时，
+ * 加载结果只返回给已在等待的调用方，不放入缓存。
+ */
+public class DefaultExcelColumnSelectionCache implements ExcelColumnSelectionCache {
+
+	/** 默认最多缓存的项数 */
+	public static final int DEFAULT_MAX_SIZE = 1000;
+	/** 默认过期时间（毫秒），10分钟 */
+	public static final long DEFAULT_EXPIRE_AFTER_MILLIS = 10 * 60 * 1000L;
+
+	/** 提供者返回null（没有下拉框）时缓存的值，与空列表区分，获取时仍返回null */
+	private static final List<ExcelColumnSelectionItem> NO_SELECTION = Collections
+			.unmodifiableList(new ArrayList<ExcelColumnSelectionItem>(0));
+
+	private int maxSize = DEFAULT_MAX_SIZE;
+	private long expireAfterMillis = DEFAULT_EXPIRE_AFTER_MILLIS;
+	/** 小于等于0时不提前刷新 */
+	private long refreshAfterMillis;
+	/** 提前刷新使用的线程池，未设置时使用内部的单个守护线程 */
+	private Executor refreshExecutor;
+	private ExecutorService defaultRefreshExecutor;
+
+	/** 按访问顺序排列，用于淘汰最久未使用的项 */
+	private final Map<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+	/** 正在同步加载的项，同一项只加载一次，使用entries的锁 */
+	private final Map<Key, FutureTask<Entry>> loading = new HashMap<Key, FutureTask<Entry>>();
+	/** 失效次数，加载前后不同时说明加载期间有失效操作，结果不放入缓存，使用entries的锁 */
+	private long invalidationGeneration;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong loadCount = new AtomicLong();
+	private final AtomicLong loadFailureCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	public DefaultExcelColumnSelectionCache() {
+	}
+
+	public DefaultExcelColumnSelectionCache(int maxSize, long expireAfterMillis) {
+		this.maxSize = maxSize;
+		this.expireAfterMillis = expireAfterMillis;
+	}
+
+	@Override
+	public List<ExcelColumnSelectionItem> get(final ExcelColumnSelectionProvider provider, String type) {
+		final Key key = new Key(provider.getClass(), type);
+		long now = currentTimeMillis();
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(key);
+		}
+		if (entry != null && now - entry.loadTime < expireAfterMillis) {
+			hitCount.incrementAndGet();
+			ExcelImportExportTools.getMetricsListener().selectionCacheAccessed(key.providerClass, type, true);
+			if (refreshAfterMillis > 0 && now - entry.loadTime >= refreshAfterMillis) {
+				refreshAsync(key, provider, entry);
+			}
+			return toResult(entry.items);
+		}
+		// 不存在或已过期，同步加载，同一项正在加载时等待该次加载的结果
+		missCount.incrementAndGet();
+		ExcelImportExportTools.getMetricsListener().selectionCacheAccessed(key.providerClass, type, false);
+		FutureTask<Entry> task;
+		boolean owner = false;
+		long generation = 0;
+		synchronized (entries) {
+			task = loading.get(key);
+			if (task == null) {
+				task = new FutureTask<Entry>(new Callable<Entry>() {
+					@Override
+					public Entry call() {
+						return load(key, provider);
+					}
+				});
+				loading.put(key, task);
+				owner = true;
+				generation = invalidationGeneration;
+			}
+		}
+		if (owner) {
+			task.run();
+		}
+		entry = null;
+		try {
+			entry = getLoaded(task);
+		} finally {
+			if (owner) {
+				synchronized (entries) {
+					if (loading.get(key) == task) {
+						loading.remove(key);
+					}
+					// 加载期间已失效时不放入缓存，避免覆盖为旧数据
+					if (entry != null && generation == invalidationGeneration) {
+						put(key, entry);
+					}
+				}
+			}
+		}
+		return toResult(entry.items);
+	}
+
+	@Override
+	public void invalidate(Class<? extends ExcelColumnSelectionProvider> providerClass, String type) {
+		Key key = new Key(providerClass, type);
+		synchronized (entries) {
+			entries.remove(key);
+			loading.remove(key);
+			invalidationGeneration++;
+		}
+	}
+
+	@Override
+	public void invalidateAll() {
+		synchronized (entries) {
+			entries.clear();
+			loading.clear();
+			invalidationGeneration++;
+		}
+	}
+
+	/** 关闭内部的刷新线程，不再使用缓存时调用 */
+	public synchronized void shutdown() {
+		if (defaultRefreshExecutor != null) {
+			defaultRefreshExecutor.shutdown();
+			defaultRefreshExecutor = null;
+		}
+	}
+
+	/** 当前缓存的项数 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public long getLoadCount() {
+		return loadCount.get();
+	}
+
+	public long getLoadFailureCount() {
+		return loadFailureCount.get();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	/** 命中率，没有访问时为0 */
+	public double getHitRate() {
+		long hit = hitCount.get();
+		long total = hit + missCount.get();
+		return total == 0 ? 0 : (double) hit / total;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public long getExpireAfterMillis() {
+		return expireAfterMillis;
+	}
+
+	public void setExpireAfterMillis(long expireAfterMillis) {
+		this.expireAfterMillis = expireAfterMillis;
+	}
+
+	public long getRefreshAfterMillis() {
+		return refreshAfterMillis;
+	}
+
+	public void setRefreshAfterMillis(long refreshAfterMillis) {
+		this.refreshAfterMillis = refreshAfterMillis;
+	}
+
+	public Executor getRefreshExecutor() {
+		return refreshExecutor;
+	}
+
+	public void setRefreshExecutor(Executor refreshExecutor) {
+		this.refreshExecutor = refreshExecutor;
+	}
+
+	/** 当前时间，子类可以覆盖（如测试时） */
+	protected long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	/** 调用提供者加载下拉选项，不放入缓存 */
+	private Entry load(Key key, ExcelColumnSelectionProvider provider) {
+		List<ExcelColumnSelectionItem> items;
+		try {
+			items = provider.selectionItems(key.type);
+		} catch (RuntimeException e) {
+			loadFailureCount.incrementAndGet();
+			throw e;
+		}
+		loadCount.incrementAndGet();
+		// 复制一份，避免提供者返回的列表之后被修改
+		items = items == null ? NO_SELECTION
+				: Collections.unmodifiableList(new ArrayList<ExcelColumnSelectionItem>(items));
+		return new Entry(items, currentTimeMillis());
+	}
+
+	/** 等待同步加载的结果，提供者的异常原样抛出 */
+	private static Entry getLoaded(FutureTask<Entry> task) {
+		try {
+			return task.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+	}
+
+	/** 放入缓存并淘汰超出容量的项，调用方需持有entries的锁 */
+	private void put(Key key, Entry entry) {
+		entries.put(key, entry);
+		Iterator<Entry> it = entries.values().iterator();
+		while (entries.size() > maxSize && it.hasNext()) {
+			it.next();
+			it.remove();
+			evictionCount.incrementAndGet();
+		}
+	}
+
+	private static List<ExcelColumnSelectionItem> toResult(List<ExcelColumnSelectionItem> items) {
+		return items == NO_SELECTION ? null : items;
+	}
+
+	private void refreshAsync(final Key key, final ExcelColumnSelectionProvider provider, final Entry entry) {
+		if (!entry.refreshing.compareAndSet(false, true)) {
+			return;
+		}
+		Runnable task = new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Entry newEntry = load(key, provider);
+					synchronized (entries) {
+						// 刷新期间已失效（或已被同步加载替换）的项不再放回，避免覆盖为旧数据
+						if (entries.get(key) == entry) {
+							put(key, newEntry);
+						}
+					}
+				} catch (RuntimeException e) {
+					// 刷新失败时保留旧值，到过期时间后再同步加载
+				} finally {
+					entry.refreshing.set(false);
+				}
+			}
+		};
+		try {
+			getOrCreateRefreshExecutor().execute(task);
+		} catch (RuntimeException e) {
+			// 线程池拒绝等情况，下次访问时再尝试
+			entry.refreshing.set(false);
+		}
+	}
+
+	private synchronized Executor getOrCreateRefreshExecutor() {
+		if (refreshExecutor != null) {
+			return refreshExecutor;
+		}
+		if (defaultRefreshExecutor == null) {
+			defaultRefreshExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "excel-selection-cache-refresh");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return defaultRefreshExecutor;
+	}
+
+	/** 缓存键：提供者类+可选值类型 */
+	private static class Key {
+		final Class<?> providerClass;
+		final String type;
+
+		Key(Class<?> providerClass, String type) {
+			this.providerClass = providerClass;
+			this.type = type;
+		}
+
+		@Override
+		public int hashCode() {
+			return providerClass.hashCode() * 31 + (type == null ? 0 : type.hashCode());
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return providerClass.equals(other.providerClass) && Utils.equals(type, other.type);
+		}
+	}
+
+	private static class Entry {
+		final List<ExcelColumnSelectionItem> items;
+		final long loadTime;
+		final AtomicBoolean refreshing = new AtomicBoolean();
+
+		Entry(List<ExcelColumnSelectionItem> items, long loadTime) {
+			this.items = items;
+			this.loadTime = loadTime;
+		}
+	}
+
+}
@@ -0,0 +1,21 @@
+package com.github.mrpanyu.excel;
+
+import java.util.List;
+
+/**
+ * 导入时的批量校验器，每批转换完成的模型对象调用一次，校验错误记录到模型对象中
+ * <p>
+ * 通过{@link ExcelImportOptions#setValidator(ExcelBatchValidator)}指定，未指定时使用{@link DefaultExcelBatchValidator}（Bean Validation校验）。
+ * 可以包装默认实现统计校验耗时，或实现批量的业务校验（如一次查询数据库校验一批编码是否存在）。使用流水线导入时会在多个线程中并发调用。
+ */
+public interface ExcelBatchValidator {
+
+	/**
+	 * 校验一批模型对象
+	 *
+	 * @param modelClass 导入模型类
+	 * @param models     本批模型对象，按行顺序排列
+	 */
+	void validate(Class<?> modelClass, List<? extends ExcelModelBase> models);
+
+}
@@ -0,0 +1,13 @@
+package com.github.mrpanyu.excel;
+
+/**
+ * 导入导出被取消（{@link ExcelProgress#cancel()}）时抛出的异常
+ */
+@SuppressWarnings("serial")
+public class ExcelCancelledException extends RuntimeException {
+
+	public ExcelCancelledException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,143 @@
+package com.github.mrpanyu.excel;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * 导入时读取单元格值的上下文，每次导入（每个工作簿）创建一个，不能在多线程间共享
+ * <p>
+ * 整个导入过程共用一个公式计算器和格式化器（格式化器内部按格式字符串缓存解析后的格式），数字单元格的格式按样式序号缓存，避免逐个单元格查找样式表。
+ * 数字单元格读到数字及日期类型属性时可以直接取值，不经过字符串转换。
+ */
+class ExcelCellReader {
+
+	private final FormulaEvaluator evaluator;
+	private final DataFormatter dataFormatter;
+	private final boolean use1904Windowing;
+	/** 按样式序号缓存的格式字符串，未缓存的为null */
+	private String[] formatStrings;
+	private short[] formatIndexes;
+
+	ExcelCellReader(Workbook wb) {
+		this.evaluator = wb.getCreationHelper().createFormulaEvaluator();
+		this.dataFormatter = new DataFormatter();
+		this.use1904Windowing = wb instanceof XSSFWorkbook && ((XSSFWorkbook) wb).isDate1904();
+		int styleCount = Math.max(wb.getNumCellStyles(), 1);
+		this.formatStrings = new String[styleCount];
+		this.formatIndexes = new short[styleCount];
+	}
+
+	/** 获取单元格字符串值，单元格不存在时返回null */
+	String getCellValueAsString(Cell cell) {
+		if (cell == null) {
+			return null;
+		}
+		CellType cellType = cell.getCellTypeEnum();
+		if (cellType == CellType.STRING) {
+			return cell.getRichStringCellValue().getString();
+		} else if (cellType == CellType.BLANK) {
+			return "";
+		} else if (cellType == CellType.NUMERIC) {
+			// 与流式导入（XSSFSheetXMLHandler）的数字格式化方式一致
+			int styleIndex = cacheFormat(cell.getCellStyle());
+			if (styleIndex < 0) {
+				return dataFormatter.formatCellValue(cell, evaluator);
+			}
+			return dataFormatter.formatRawCellContents(cell.getNumericCellValue(), formatIndexes[styleIndex],
+					formatStrings[styleIndex], use1904Windowing);
+		} else {
+			// 公式、布尔值、错误值等
+			return dataFormatter.formatCellValue(cell, evaluator);
+		}
+	}
+
+	/**
+	 * 按属性类型直接读取数字单元格的值（日期类型属性读取为Date，由调用方转换为属性类型），无法无损转换时返回null，由调用方按字符串方式处理
+	 * <p>
+	 * 整数类型属性只接受整数值且不能超出范围，小数部分或超出范围的值仍按单元格显示的字符串解析（与原有行为一致）。
+	 */
+	Object getTypedCellValue(Cell cell, ExcelColumnInfo columnInfo) {
+		double d = cell.getNumericCellValue();
+		switch (columnInfo.valueType) {
+		case INTEGER:
+			if (d == Math.rint(d) && d >= Integer.MIN_VALUE && d <= Integer.MAX_VALUE) {
+				return Integer.valueOf((int) d);
+			}
+			return null;
+		case LONG:
+			if (d == Math.rint(d) && d >= Long.MIN_VALUE && d <= Long.MAX_VALUE) {
+				return Long.valueOf((long) d);
+			}
+			return null;
+		case FLOAT:
+			return Float.valueOf((float) d);
+		case DOUBLE:
+			return Double.valueOf(d);
+		case BIG_DECIMAL:
+			// 按Excel显示的有效位数转换，避免二进制浮点误差
+			return new BigDecimal(NumberToTextConverter.toText(d));
+		case DATE:
+			// 只处理日期格式的单元格，其他数字（如20200101）仍按字符串以属性的日期格式解析
+			int styleIndex = cacheFormat(cell.getCellStyle());
+			if (styleIndex >= 0 && DateUtil.isADateFormat(formatIndexes[styleIndex], formatStrings[styleIndex])
+					&& DateUtil.isValidExcelDate(d)) {
+				return DateUtil.getJavaDate(d, use1904Windowing);
+			}
+			return null;
+		default:
+			return null;
+		}
+	}
+
+	/** 直接读取的值对应的原始值字符串，导出错误信息时使用 */
+	static String toOriginalValue(Object value, ExcelColumnInfo columnInfo) {
+		if (value instanceof Date) {
+			return Utils.formatDate((Date) value, columnInfo.dateFormat);
+		} else if (value instanceof Float || value instanceof Double) {
+			return NumberToTextConverter.toText(((Number) value).doubleValue());
+		} else if (value instanceof BigDecimal) {
+			return ((BigDecimal) value).toPlainString();
+		}
+		return value.toString();
+	}
+
+	/** 缓存样式的格式，返回样式序号，样式或格式不存在时返回-1 */
+	private int cacheFormat(CellStyle style) {
+		if (style == null) {
+			return -1;
+		}
+		int styleIndex = style.getIndex() & 0xFFFF;
+		if (styleIndex >= formatStrings.length) {
+			growFormatCache(styleIndex + 1);
+		}
+		if (formatStrings[styleIndex] == null) {
+			String formatString = style.getDataFormatString();
+			if (formatString == null) {
+				return -1;
+			}
+			formatIndexes[styleIndex] = style.getDataFormat();
+			formatStrings[styleIndex] = formatString;
+		}
+		return styleIndex;
+	}
+
+	private void growFormatCache(int size) {
+		String[] newFormatStrings = new String[size];
+		short[] newFormatIndexes = new short[size];
+		System.arraycopy(formatStrings, 0, newFormatStrings, 0, formatStrings.length);
+		System.arraycopy(formatIndexes, 0, newFormatIndexes, 0, formatIndexes.length);
+		formatStrings = newFormatStrings;
+		formatIndexes = newFormatIndexes;
+	}
+
+}
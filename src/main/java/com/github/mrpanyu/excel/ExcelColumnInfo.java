@@ -0,0 +1,136 @@
+package com.github.mrpanyu.excel;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Excel模型中一个标注了{@link ExcelColumn}的属性的预解析信息，创建后不再改变，可以在多线程间共享
+ */
+class ExcelColumnInfo {
+
+	/** 单元格值转换为属性值的方式，DATE包括Date及java.time日期类型 */
+	enum ValueType {
+		STRING, DATE, INTEGER, LONG, FLOAT, DOUBLE, BIG_DECIMAL
+	}
+
+	/** 列序号，从0开始 */
+	final int index;
+	final ExcelColumn annotation;
+	/** 属性读写器 */
+	final ExcelPropertyAccessor accessor;
+	/** 属性名称 */
+	final String name;
+	/** 属性类型 */
+	final Class<?> type;
+	final ValueType valueType;
+	/** 导出时是否写成数字单元格（数字及日期类型） */
+	final boolean numeric;
+	/** 导入时解析日期使用的格式 */
+	final String dateFormat;
+	/** 数据单元格的格式，内置格式或自定义格式字符串 */
+	final String dataFormat;
+	/** 下拉选项提供者，没有下拉框的列为null */
+	final ExcelColumnSelectionProvider selectionProvider;
+	/** 级联下拉时上级属性的列序号，非级联或上级属性不存在时为-1 */
+	final int refColumnIndex;
+
+	ExcelColumnInfo(int index, String name, Class<?> type, ExcelColumn annotation, ExcelPropertyAccessor accessor,
+			ExcelColumnSelectionProvider selectionProvider, int refColumnIndex) {
+		this.index = index;
+		this.annotation = annotation;
+		this.accessor = accessor;
+		this.name = name;
+		this.type = type;
+		this.valueType = valueTypeOf(type);
+		this.numeric = Number.class.isAssignableFrom(type) || Date.class.isAssignableFrom(type)
+				|| JavaTimeTypes.isJavaTimeType(type);
+		this.dateFormat = Utils.isBlank(annotation.dateFormat()) ? defaultDateFormat(type) : annotation.dateFormat();
+		this.dataFormat = dataFormatOf(annotation, type);
+		this.selectionProvider = selectionProvider;
+		this.refColumnIndex = refColumnIndex;
+	}
+
+	/** 是否有下拉选项 */
+	boolean hasSelection() {
+		return selectionProvider != null;
+	}
+
+	/** 是否级联下拉 */
+	boolean isCascade() {
+		return Utils.isNotBlank(annotation.selectionRefField());
+	}
+
+	/** 将读取到的日期转换为属性类型的值（java.time日期类型需要转换） */
+	Object fromDate(Date date) {
+		if (date == null || Date.class.equals(type)) {
+			return date;
+		}
+		return JavaTimeTypes.fromDate(date, type);
+	}
+
+	/** 将属性值转换为写入单元格的日期 */
+	Date toDate(Object value) {
+		if (value instanceof Date) {
+			return (Date) value;
+		}
+		return JavaTimeTypes.toDate(value);
+	}
+
+	/** 从提供者（设置了缓存时从缓存）获取下拉选项，没有下拉框时返回null */
+	List<ExcelColumnSelectionItem> loadSelectionItems(ExcelColumnSelectionCache cache) {
+		if (selectionProvider == null) {
+			return null;
+		}
+		if (cache != null) {
+			return cache.get(selectionProvider, annotation.selectionType());
+		}
+		return selectionProvider.selectionItems(annotation.selectionType());
+	}
+
+	private static ValueType valueTypeOf(Class<?> type) {
+		if (Date.class.equals(type) || JavaTimeTypes.isJavaTimeType(type)) {
+			return ValueType.DATE;
+		} else if (Integer.class.equals(type) || Integer.TYPE.equals(type)) {
+			return ValueType.INTEGER;
+		} else if (Long.class.equals(type) || Long.TYPE.equals(type)) {
+			return ValueType.LONG;
+		} else if (Float.class.equals(type) || Float.TYPE.equals(type)) {
+			return ValueType.FLOAT;
+		} else if (Double.class.equals(type) || Double.TYPE.equals(type)) {
+			return ValueType.DOUBLE;
+		} else if (BigDecimal.class.equals(type)) {
+			return ValueType.BIG_DECIMAL;
+		} else {
+			return ValueType.STRING;
+		}
+	}
+
+	/** 未指定日期格式时的默认格式，带时间的java.time类型包含时分秒 */
+	private static String defaultDateFormat(Class<?> type) {
+		return JavaTimeTypes.hasTime(type) ? "yyyy-MM-dd HH:mm:ss" : "yyyy-MM-dd";
+	}
+
+	private static String dataFormatOf(ExcelColumn annotation, Class<?> type) {
+		if (Utils.isNotBlank(annotation.dateFormat())) {
+			// 自定义日期格式
+			return annotation.dateFormat();
+		} else if (String.class.equals(type)) {
+			// 文本
+			return "@";
+		} else if (Date.class.equals(type) || JavaTimeTypes.isJavaTimeType(type)) {
+			// 日期
+			return defaultDateFormat(type);
+		} else if (Integer.class.equals(type) || Integer.TYPE.equals(type) || Long.class.equals(type)
+				|| Long.TYPE.equals(type)) {
+			return "0";
+		} else if (Double.class.equals(type) || Double.TYPE.equals(type) || Float.class.equals(type)
+				|| Float.TYPE.equals(type)) {
+			return "0.00";
+		} else {
+			// 常规
+			return "General";
+		}
+	}
+
+}
@@ -0,0 +1,34 @@
+package com.github.mrpanyu.excel;
+
+import java.util.List;
+
+/**
+ * 下拉选项缓存接口，通过{@link ExcelImportExportTools#setSelectionCache(ExcelColumnSelectionCache)}设置后，导入导出时的下拉选项从缓存获取，不再每次调用提供者
+ * <p>
+ * 默认实现为{@link DefaultExcelColumnSelectionCache}，也可以自行实现（如对接已有的缓存组件）。
+ */
+public interface ExcelColumnSelectionCache {
+
+	/**
+	 * 获取下拉选项，缓存中不存在或已过期时调用提供者获取
+	 *
+	 * @param provider 下拉选项提供者
+	 * @param type     可选值类型
+	 * @return 所有可选值列表，不能修改；提供者返回null（没有下拉框）时返回null
+	 */
+	List<ExcelColumnSelectionItem> get(ExcelColumnSelectionProvider provider, String type);
+
+	/**
+	 * 使指定提供者、指定类型的下拉选项缓存失效
+	 *
+	 * @param providerClass 提供者类
+	 * @param type          可选值类型
+	 */
+	void invalidate(Class<? extends ExcelColumnSelectionProvider> providerClass, String type);
+
+	/**
+	 * 使所有下拉选项缓存失效
+	 */
+	void invalidateAll();
+
+}
@@ -0,0 +1,86 @@
+package com.github.mrpanyu.excel;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一列下拉选项的索引，每次导入导出构建一次，实际值与显示名称的相互转换不需要逐项查找
+ * <p>
+ * 级联下拉的列另外按上级实际值分组建立索引，不同上级下的同名选项（如各省的“市辖区”）可以正确区分；非级联的列不建立分组索引。
+ */
+class ExcelColumnSelectionIndex {
+
+	/** 原始选项列表，按提供者返回的顺序 */
+	final List<ExcelColumnSelectionItem> items;
+	private final Map<String, String> nameToValue;
+	private final Map<String, String> valueToName;
+	/** 上级实际值 -> (显示名称 -> 实际值)，非级联时为空 */
+	private final Map<String, Map<String, String>> refNameToValue;
+	/** 上级实际值 -> (实际值 -> 显示名称)，非级联时为空 */
+	private final Map<String, Map<String, String>> refValueToName;
+
+	/**
+	 * @param items   下拉选项
+	 * @param cascade 是否级联下拉（有上级列），为true时才按上级实际值分组建立索引
+	 */
+	ExcelColumnSelectionIndex(List<ExcelColumnSelectionItem> items, boolean cascade) {
+		this.items = items;
+		int capacity = Math.max(16, items.size() * 4 / 3 + 1);
+		this.nameToValue = new HashMap<String, String>(capacity);
+		this.valueToName = new HashMap<String, String>(capacity);
+		if (cascade) {
+			this.refNameToValue = new HashMap<String, Map<String, String>>();
+			this.refValueToName = new HashMap<String, Map<String, String>>();
+		} else {
+			this.refNameToValue = Collections.emptyMap();
+			this.refValueToName = Collections.emptyMap();
+		}
+		for (ExcelColumnSelectionItem item : items) {
+			// 名称重复时取最后一项，实际值重复时取第一项（与原有逐项查找的结果一致）
+			nameToValue.put(item.getName(), item.getValue());
+			if (!valueToName.containsKey(item.getValue())) {
+				valueToName.put(item.getValue(), item.getName());
+			}
+			if (cascade && item.getRefValue() != null) {
+				Map<String, String> names = refNameToValue.get(item.getRefValue());
+				Map<String, String> values = refValueToName.get(item.getRefValue());
+				if (names == null) {
+					names = new HashMap<String, String>();
+					values = new HashMap<String, String>();
+					refNameToValue.put(item.getRefValue(), names);
+					refValueToName.put(item.getRefValue(), values);
+				}
+				names.put(item.getName(), item.getValue());
+				if (!values.containsKey(item.getValue())) {
+					values.put(item.getValue(), item.getName());
+				}
+			}
+		}
+	}
+
+	/** 根据显示名称获取实际值，不存在时返回null */
+	String getValue(String name) {
+		return nameToValue.get(name);
+	}
+
+	/** 根据上级实际值及显示名称获取实际值，上级下不存在该选项时返回null */
+	String getValue(String refValue, String name) {
+		Map<String, String> names = refNameToValue.get(refValue);
+		return names == null ? null : names.get(name);
+	}
+
+	/** 根据实际值获取显示名称，不存在时返回null */
+	String getName(String value) {
+		return valueToName.get(value);
+	}
+
+	/** 根据上级实际值及实际值获取显示名称，上级下不存在时按实际值查找 */
+	String getName(String refValue, String value) {
+		Map<String, String> values = refValueToName.get(refValue);
+		String name = values == null ? null : values.get(value);
+		return name == null ? valueToName.get(value) : name;
+	}
+
+}
@@ -0,0 +1,107 @@
+package com.github.mrpanyu.excel;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Sheet;
+
+/**
+ * 自动宽度列的宽度统计，在写出数据行的同时记录各列显示文字的最大宽度，全部写完后一次设置列宽
+ * <p>
+ * 不使用{@link Sheet#autoSizeColumn(int)}：该方法需要重新扫描所有行并通过AWT计算字体尺寸，大数据量时很慢，流式导出时已写出的行也无法再访问。
+ * 宽度按字符估算，中日韩文字及全角字符按2个字符宽度计算，结果只与内容有关，不受运行环境字体影响。
+ */
+class ExcelColumnWidthTracker {
+
+	/** Excel允许的最大列宽（字符数） */
+	private static final int MAX_WIDTH = 255;
+	/** 单元格两侧留白（字符数） */
+	private static final int PADDING = 2;
+
+	private final boolean[] tracked;
+	private final int[] maxWidths;
+	/** 最多统计的数据行数，小于等于0时统计所有行 */
+	private final int sampleRows;
+	private int sampledRows;
+
+	ExcelColumnWidthTracker(List<ExcelColumnInfo> columnInfos, int sampleRows) {
+		this.tracked = new boolean[columnInfos.size()];
+		this.maxWidths = new int[columnInfos.size()];
+		this.sampleRows = sampleRows;
+		for (int c = 0; c < columnInfos.size(); c++) {
+			ExcelColumnInfo columnInfo = columnInfos.get(c);
+			tracked[c] = columnInfo.annotation.width() <= 0;
+			// 列头为粗体，多留一个字符
+			maxWidths[c] = displayWidth(columnInfo.annotation.name()) + 1;
+		}
+	}
+
+	/** 当前行是否需要统计 */
+	boolean isSampling() {
+		return sampleRows <= 0 || sampledRows < sampleRows;
+	}
+
+	/** 记录单元格的显示文字 */
+	void track(int column, String text) {
+		if (tracked[column] && text != null) {
+			int width = displayWidth(text);
+			if (width > maxWidths[column]) {
+				maxWidths[column] = width;
+			}
+		}
+	}
+
+	/** 记录数字或日期单元格的值，按列的数据格式估算显示宽度 */
+	void track(int column, ExcelColumnInfo columnInfo, Object value) {
+		if (!tracked[column] || value == null) {
+			return;
+		}
+		if (columnInfo.valueType == ExcelColumnInfo.ValueType.DATE) {
+			track(column, columnInfo.dataFormat);
+		} else if ("0.00".equals(columnInfo.dataFormat) && value instanceof Number) {
+			track(column, String.valueOf(((Number) value).longValue()) + ".00");
+		} else if (value instanceof BigDecimal) {
+			track(column, ((BigDecimal) value).toPlainString());
+		} else {
+			track(column, value.toString());
+		}
+	}
+
+	/** 一行统计结束 */
+	void endRow() {
+		sampledRows++;
+	}
+
+	/** 设置自动宽度列的列宽 */
+	void apply(Sheet sheet) {
+		for (int c = 0; c < tracked.length; c++) {
+			if (tracked[c]) {
+				sheet.setColumnWidth(c, Math.min(maxWidths[c] + PADDING, MAX_WIDTH) * 256);
+			}
+		}
+	}
+
+	/** 文字的显示宽度（字符数），多行文字取最长的一行 */
+	static int displayWidth(String text) {
+		int max = 0;
+		int width = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '\n') {
+				max = Math.max(max, width);
+				width = 0;
+			} else {
+				width += isWide(c) ? 2 : 1;
+			}
+		}
+		return Math.max(max, width);
+	}
+
+	/** 是否为中日韩文字及全角字符（与终端显示宽度的通常规则一致） */
+	private static boolean isWide(char c) {
+		return c >= 0x1100 && (c <= 0x115F || (c >= 0x2E80 && c <= 0xA4CF && c != 0x303F)
+				|| (c >= 0xAC00 && c <= 0xD7A3) || (c >= 0xF900 && c <= 0xFAFF) || (c >= 0xFE30 && c <= 0xFE4F)
+				|| (c >= 0xFF00 && c <= 0xFF60) || (c >= 0xFFE0 && c <= 0xFFE6));
+	}
+
+}
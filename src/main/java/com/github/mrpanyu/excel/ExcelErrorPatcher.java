@@ -0,0 +1,98 @@
+package com.github.mrpanyu.excel;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+
+/**
+ * 将错误信息标注到导入的原始文件中：按导入时记录的行号找到有错误的行，错误行及错误单元格标色，最后一列写入错误信息
+ * <p>
+ * 标色时在单元格原有样式的基础上增加填充色（错误单元格再改为红色粗体），原有的数据格式、对齐方式等保持不变；新样式按原样式缓存，不会每个单元格新建一个。
+ */
+class ExcelErrorPatcher {
+
+	private final Workbook wb;
+	private final ExcelStyleRegistry styleRegistry;
+	private final Map<Short, CellStyle> errorRowStyles = new HashMap<Short, CellStyle>();
+	private final Map<Short, CellStyle> errorCellStyles = new HashMap<Short, CellStyle>();
+	private Font errorFont;
+
+	ExcelErrorPatcher(Workbook wb) {
+		this.wb = wb;
+		this.styleRegistry = new ExcelStyleRegistry(wb);
+	}
+
+	/** 标注一个sheet页中有错误的行，返回标注的行数 */
+	int patchSheet(Sheet sheet, Class<?> modelClass, List<?> models) {
+		List<ExcelColumnInfo> columnInfos = ExcelModelDescriptor.of(modelClass).columns;
+		CellStyle errorMessageCellStyle = ExcelImportExportTools.getErrorMessageCellStyle(styleRegistry);
+		int count = 0;
+		for (Object item : models) {
+			if (!(item instanceof ExcelModelBase)) {
+				continue;
+			}
+			ExcelModelBase model = (ExcelModelBase) item;
+			if (!model.hasError() || model.getRowNumber() <= 0) {
+				continue;
+			}
+			Row row = sheet.getRow(model.getRowNumber() - 1);
+			if (row == null) {
+				row = sheet.createRow(model.getRowNumber() - 1);
+			}
+			for (ExcelColumnInfo columnInfo : columnInfos) {
+				Cell cell = row.getCell(columnInfo.index);
+				if (cell == null) {
+					cell = row.createCell(columnInfo.index);
+				}
+				cell.setCellStyle(getErrorStyle(cell.getCellStyle(), model.hasFieldError(columnInfo.name)));
+			}
+			Cell messageCell = row.getCell(columnInfos.size());
+			if (messageCell == null) {
+				messageCell = row.createCell(columnInfos.size());
+			}
+			messageCell.setCellValue(Utils.join(model.getAllErrors(), ";"));
+			messageCell.setCellStyle(errorMessageCellStyle);
+			count++;
+		}
+		if (count > 0) {
+			sheet.setColumnWidth(columnInfos.size(), 25600);
+		}
+		return count;
+	}
+
+	private CellStyle getErrorStyle(CellStyle original, boolean errorCell) {
+		Map<Short, CellStyle> styles = errorCell ? errorCellStyles : errorRowStyles;
+		CellStyle style = styles.get(original.getIndex());
+		if (style == null) {
+			style = wb.createCellStyle();
+			style.cloneStyleFrom(original);
+			// 与导出错误文件的样式一致
+			style.setFillForegroundColor(IndexedColors.LIGHT_ORANGE.index);
+			style.setFillPattern(FillPatternType.FINE_DOTS);
+			if (errorCell) {
+				style.setFont(getErrorFont());
+			}
+			styles.put(original.getIndex(), style);
+		}
+		return style;
+	}
+
+	private Font getErrorFont() {
+		if (errorFont == null) {
+			errorFont = wb.createFont();
+			errorFont.setBold(true);
+			errorFont.setColor(IndexedColors.RED.getIndex());
+		}
+		return errorFont;
+	}
+
+}
@@ -0,0 +1,143 @@
+package com.github.mrpanyu.excel;
+
+import java.io.Serializable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Excel导出选项
+ */
+@SuppressWarnings("serial")
+public class ExcelExportOptions implements Serializable {
+
+	/** 流式导出时默认在内存中保留的行数 */
+	public static final int DEFAULT_ROW_ACCESS_WINDOW_SIZE = 100;
+	/** 自动宽度默认统计的数据行数 */
+	public static final int DEFAULT_AUTO_WIDTH_SAMPLE_ROWS = 1000;
+
+	/** 是否使用流式导出（SXSSF），大数据量导出时内存占用不随行数增长 */
+	private boolean streaming;
+	/** 流式导出时在内存中保留的行数，超出的行会写入临时文件 */
+	private int rowAccessWindowSize = DEFAULT_ROW_ACCESS_WINDOW_SIZE;
+	/** 流式导出时是否压缩临时文件 */
+	private boolean compressTempFiles = true;
+	/** 写出到输出流时的分块大小（字节），每写满一块刷新一次输出流，小于等于0时不分块 */
+	private int outputChunkSize;
+	/** 自动宽度（width为0）的列统计前多少个数据行的内容计算列宽，小于等于0时统计所有行 */
+	private int autoWidthSampleRows = DEFAULT_AUTO_WIDTH_SAMPLE_ROWS;
+	/** 是否只导出有错误（{@link ExcelModelBase#hasError()}）的行，错误信息前加上导入时的行号，用于大文件导入后生成错误报告 */
+	private boolean errorRowsOnly;
+	/**
+	 * 是否并行写出各sheet页的数据行，只在流式导出时有效（各sheet页的数据行写入各自的临时文件）。各sheet页的数据迭代器会在不同线程中读取，不能相互依赖
+	 */
+	private boolean parallel;
+	/**
+	 * 并行导出使用的线程池，由调用方管理（导出完成后不会关闭）。未设置时，在支持虚拟线程的JVM上使用虚拟线程，否则按CPU核数创建临时线程池，导出完成后关闭
+	 */
+	private transient ExecutorService executor;
+	/** 进度及取消句柄，为null时不报告进度 */
+	private transient ExcelProgress progress;
+
+	public ExcelExportOptions() {
+	}
+
+	/** 创建流式导出选项 */
+	public static ExcelExportOptions streaming() {
+		ExcelExportOptions options = new ExcelExportOptions();
+		options.setStreaming(true);
+		return options;
+	}
+
+	/** 创建只导出错误行的选项 */
+	public static ExcelExportOptions errorRowsOnly() {
+		ExcelExportOptions options = new ExcelExportOptions();
+		options.setErrorRowsOnly(true);
+		return options;
+	}
+
+	/** 创建流式并行导出选项 */
+	public static ExcelExportOptions parallel() {
+		ExcelExportOptions options = streaming();
+		options.setParallel(true);
+		return options;
+	}
+
+	/** 创建使用指定线程池的流式并行导出选项 */
+	public static ExcelExportOptions parallel(ExecutorService executor) {
+		ExcelExportOptions options = parallel();
+		options.setExecutor(executor);
+		return options;
+	}
+
+	public boolean isStreaming() {
+		return streaming;
+	}
+
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	public int getRowAccessWindowSize() {
+		return rowAccessWindowSize;
+	}
+
+	public void setRowAccessWindowSize(int rowAccessWindowSize) {
+		this.rowAccessWindowSize = rowAccessWindowSize;
+	}
+
+	public boolean isCompressTempFiles() {
+		return compressTempFiles;
+	}
+
+	public void setCompressTempFiles(boolean compressTempFiles) {
+		this.compressTempFiles = compressTempFiles;
+	}
+
+	public int getOutputChunkSize() {
+		return outputChunkSize;
+	}
+
+	public void setOutputChunkSize(int outputChunkSize) {
+		this.outputChunkSize = outputChunkSize;
+	}
+
+	public int getAutoWidthSampleRows() {
+		return autoWidthSampleRows;
+	}
+
+	public void setAutoWidthSampleRows(int autoWidthSampleRows) {
+		this.autoWidthSampleRows = autoWidthSampleRows;
+	}
+
+	public boolean isErrorRowsOnly() {
+		return errorRowsOnly;
+	}
+
+	public void setErrorRowsOnly(boolean errorRowsOnly) {
+		this.errorRowsOnly = errorRowsOnly;
+	}
+
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	public ExcelProgress getProgress() {
+		return progress;
+	}
+
+	public void setProgress(ExcelProgress progress) {
+		this.progress = progress;
+	}
+
+}
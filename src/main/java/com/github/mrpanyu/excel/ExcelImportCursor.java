@@ -0,0 +1,234 @@
+package com.github.mrpanyu.excel;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import org.xml.sax.ContentHandler;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * 单个sheet页的导入游标，由{@link ExcelImportExportTools#impCursor(InputStream, int, Class)}创建
+ * <p>
+ * 每次只解析到下一行有数据的记录为止（指定导入选项时为下一批），返回的模型对象已完成解析及校验（错误信息记录在模型对象中）。使用完毕后必须调用{@link #close()}。
+ * <p>
+ * 指定导入选项时同样检查导入限制：超出限制时抛出{@link ExcelImportLimitException}，连续空行数达到上限时结束遍历。
+ */
+public class ExcelImportCursor<T> implements Iterator<T>, Closeable {
+
+	private static XMLInputFactory xmlInputFactory = createXMLInputFactory();
+
+	private Class<T> modelClass;
+	private Closeable source;
+	private InputStream sheetInput;
+	private XMLStreamReader xmlReader;
+	private ContentHandler contentHandler;
+	private SheetHandler sheetHandler;
+	private boolean started;
+
+	/** 已解析但还未取走的模型对象，按批转换（校验或流水线）时整批放入，使用流水线时可能同时放入多个已完成的批 */
+	private LinkedList<T> buffer = new LinkedList<T>();
+	private boolean finished;
+	private boolean closed;
+
+	ExcelImportCursor(Class<T> modelClass, Closeable source, InputStream sheetInput) throws Exception {
+		this.modelClass = modelClass;
+		this.source = source;
+		this.sheetInput = sheetInput;
+		this.xmlReader = xmlInputFactory.createXMLStreamReader(sheetInput);
+	}
+
+	/** 是否还有下一条数据 */
+	@Override
+	public boolean hasNext() {
+		fill();
+		return !buffer.isEmpty();
+	}
+
+	/** 获取下一条数据 */
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return buffer.removeFirst();
+	}
+
+	/**
+	 * 获取下一批数据
+	 *
+	 * @param batchSize 最多获取的条数
+	 * @return 下一批数据，没有更多数据时返回空List
+	 */
+	public List<T> next(int batchSize) {
+		List<T> batch = new ArrayList<T>(batchSize);
+		while (batch.size() < batchSize && hasNext()) {
+			batch.add(buffer.removeFirst());
+		}
+		return batch;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/** 关闭游标，释放临时文件等资源 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		finished = true;
+		buffer.clear();
+		try {
+			if (sheetHandler != null) {
+				sheetHandler.close();
+			}
+			xmlReader.close();
+			sheetInput.close();
+		} catch (Exception e) {
+			// ignore
+		} finally {
+			try {
+				source.close();
+			} catch (Exception e) {
+				// ignore
+			}
+		}
+	}
+
+	/**
+	 * 设置解析sheet页XML的处理器
+	 *
+	 * @param contentHandler XML处理器
+	 * @param sheetHandler   行处理器，解析结束时调用finish（转换剩余的行），关闭游标时调用close
+	 */
+	void setContentHandler(ContentHandler contentHandler, SheetHandler sheetHandler) {
+		this.contentHandler = contentHandler;
+		this.sheetHandler = sheetHandler;
+	}
+
+	/** 行处理器，解析完的模型对象放入缓冲区等待取走 */
+	ExcelImportHandler getRowHandler() {
+		return new ExcelImportHandler() {
+			@Override
+			public void handle(int sheetIndex, Object model) {
+				buffer.add(modelClass.cast(model));
+			}
+		};
+	}
+
+	/** 向前解析sheet页XML，直到得到下一条数据或解析结束 */
+	private void fill() {
+		if (closed) {
+			throw new IllegalStateException("导入游标已关闭");
+		}
+		try {
+			if (!started) {
+				started = true;
+				contentHandler.startDocument();
+			}
+			while (buffer.isEmpty() && !finished) {
+				if (!xmlReader.hasNext()) {
+					finishSheet();
+					break;
+				}
+				try {
+					parseNext();
+				} catch (ExcelImportLimits.SheetEndException e) {
+					// 连续空行数达到上限，之后的行不再读取
+					finishSheet();
+				}
+			}
+		} catch (RuntimeException e) {
+			close();
+			throw e;
+		} catch (Exception e) {
+			close();
+			throw new RuntimeException(e);
+		}
+	}
+
+	/** 解析下一个XML事件并交给XML处理器 */
+	private void parseNext() throws Exception {
+		switch (xmlReader.next()) {
+		case XMLStreamConstants.START_ELEMENT:
+			contentHandler.startElement(namespaceURI(), xmlReader.getLocalName(), qName(), attributes());
+			break;
+		case XMLStreamConstants.END_ELEMENT:
+			contentHandler.endElement(namespaceURI(), xmlReader.getLocalName(), qName());
+			break;
+		case XMLStreamConstants.CHARACTERS:
+		case XMLStreamConstants.CDATA:
+		case XMLStreamConstants.SPACE:
+			contentHandler.characters(xmlReader.getTextCharacters(), xmlReader.getTextStart(),
+					xmlReader.getTextLength());
+			break;
+		case XMLStreamConstants.END_DOCUMENT:
+			contentHandler.endDocument();
+			finishSheet();
+			break;
+		default:
+			break;
+		}
+	}
+
+	/** 解析结束，转换剩余的行 */
+	private void finishSheet() throws Exception {
+		finished = true;
+		sheetHandler.finish();
+	}
+
+	private String namespaceURI() {
+		String uri = xmlReader.getNamespaceURI();
+		return uri == null ? "" : uri;
+	}
+
+	private String qName() {
+		String prefix = xmlReader.getPrefix();
+		return prefix == null || prefix.length() == 0 ? xmlReader.getLocalName()
+				: prefix + ":" + xmlReader.getLocalName();
+	}
+
+	private AttributesImpl attributes() {
+		AttributesImpl attributes = new AttributesImpl();
+		for (int i = 0; i < xmlReader.getAttributeCount(); i++) {
+			String uri = xmlReader.getAttributeNamespace(i);
+			String prefix = xmlReader.getAttributePrefix(i);
+			String localName = xmlReader.getAttributeLocalName(i);
+			String qName = prefix == null || prefix.length() == 0 ? localName : prefix + ":" + localName;
+			attributes.addAttribute(uri == null ? "" : uri, localName, qName, "CDATA",
+					xmlReader.getAttributeValue(i));
+		}
+		return attributes;
+	}
+
+	/** 游标使用的行处理器 */
+	interface SheetHandler {
+
+		/** sheet页解析完毕，转换剩余的行 */
+		void finish() throws Exception;
+
+		/** 释放资源 */
+		void close();
+
+	}
+
+	private static XMLInputFactory createXMLInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		return factory;
+	}
+
+}
@@ -3,25 +3,23 @@ package com.github.mrpanyu.excel;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
-import java.lang.reflect.Field;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
-import javax.validation.ConstraintViolation;
-import javax.validation.Validation;
-import javax.validation.Validator;
-import javax.validation.ValidatorFactory;
-
-import org.apache.poi.ss.usermodel.BorderStyle;
-import org.apache.poi.ss.usermodel.BuiltinFormats;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.CellType;
@@ -32,8 +30,6 @@ import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.DataValidationConstraint;
 import org.apache.poi.ss.usermodel.Drawing;
 import org.apache.poi.ss.usermodel.FillPatternType;
-import org.apache.poi.ss.usermodel.Font;
-import org.apache.poi.ss.usermodel.FormulaEvaluator;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
 import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.ss.usermodel.Name;
@@ -41,8 +37,14 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellRangeAddressList;
+import org.apache.poi.util.SAXHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.hibernate.validator.HibernateValidator;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
 
 /**
  * Excel导入导出工具
@@ -52,10 +54,50 @@ public class ExcelImportExportTools {
 	/** 导入模板填入多少行 */
 	private static final int TEMPLATE_DATA_ROWS = 100;
 
-	private static Map<Class<?>, ExcelColumnSelectionProvider> selectionProviderMap = new HashMap<Class<?>, ExcelColumnSelectionProvider>();
+	private static Map<Class<?>, ExcelColumnSelectionProvider> selectionProviderMap = new ConcurrentHashMap<Class<?>, ExcelColumnSelectionProvider>();
+
+	/** 下拉选项缓存，为null时每次导入导出都调用提供者获取 */
+	private static volatile ExcelColumnSelectionCache selectionCache;
 
-	private static ValidatorFactory validatorFactory = Validation.byProvider(HibernateValidator.class).configure()
-			.buildValidatorFactory();
+	private static final ExcelMetricsListener NO_OP_METRICS_LISTENER = new NoOpExcelMetricsListener();
+	/** 监控接口，未设置时不做任何处理 */
+	private static volatile ExcelMetricsListener metricsListener = NO_OP_METRICS_LISTENER;
+
+	/**
+	 * 设置下拉选项缓存，设置后导入导出时的下拉选项从缓存获取（如{@link DefaultExcelColumnSelectionCache}），设置为null时不使用缓存（默认）
+	 *
+	 * @param cache 下拉选项缓存
+	 */
+	public static void setSelectionCache(ExcelColumnSelectionCache cache) {
+		selectionCache = cache;
+	}
+
+	/**
+	 * 获取当前使用的下拉选项缓存，可用于使缓存失效
+	 *
+	 * @return 下拉选项缓存，未设置时为null
+	 */
+	public static ExcelColumnSelectionCache getSelectionCache() {
+		return selectionCache;
+	}
+
+	/**
+	 * 设置导入导出的监控接口，用于统计各阶段耗时、行数、错误数等，设置为null时不统计（默认）
+	 *
+	 * @param listener 监控接口，实现必须是线程安全的
+	 */
+	public static void setMetricsListener(ExcelMetricsListener listener) {
+		metricsListener = listener == null ? NO_OP_METRICS_LISTENER : listener;
+	}
+
+	/**
+	 * 获取当前使用的监控接口
+	 *
+	 * @return 监控接口，未设置时为不做任何处理的默认实现
+	 */
+	public static ExcelMetricsListener getMetricsListener() {
+		return metricsListener;
+	}
 
 	/**
 	 * 生成导入模板文件
@@ -64,15 +106,50 @@ public class ExcelImportExportTools {
 	 * @return 导入模板文件内容
 	 */
 	public static byte[] impTemplate(Class<?>... modelClasses) {
-		// 导入模板实际就是导出若干个空对象
+		return exp(templateData(modelClasses), modelClasses);
+	}
+
+	/**
+	 * 生成导入模板文件，直接写出到输出流（输出流不会被关闭）
+	 *
+	 * @param out          输出流
+	 * @param modelClasses 导入模型信息，每个模型针对一个sheet页
+	 */
+	public static void impTemplate(OutputStream out, Class<?>... modelClasses) {
+		impTemplate(new ExcelExportOptions(), out, modelClasses);
+	}
+
+	/**
+	 * 按导出选项生成导入模板文件，直接写出到输出流（输出流不会被关闭），可以通过选项报告进度或取消（如模型很多时）
+	 *
+	 * @param options      导出选项
+	 * @param out          输出流
+	 * @param modelClasses 导入模型信息，每个模型针对一个sheet页
+	 */
+	public static void impTemplate(ExcelExportOptions options, OutputStream out, Class<?>... modelClasses) {
+		exp(templateData(modelClasses), options, out, modelClasses);
+	}
+
+	/**
+	 * 生成导入模板文件，直接写出到通道（通道不会被关闭）
+	 *
+	 * @param channel      输出通道
+	 * @param modelClasses 导入模型信息，每个模型针对一个sheet页
+	 */
+	public static void impTemplate(WritableByteChannel channel, Class<?>... modelClasses) {
+		impTemplate(Channels.newOutputStream(channel), modelClasses);
+	}
+
+	/** 导入模板实际就是导出若干个空对象 */
+	private static List<List<Object>> templateData(Class<?>... modelClasses) {
 		List<List<Object>> data = new ArrayList<List<Object>>(modelClasses.length);
 		for (int i = 0; i < modelClasses.length; i++) {
 			List<Object> sheetData = Arrays.asList(new Object[TEMPLATE_DATA_ROWS]);
 			data.add(sheetData);
 		}
-		return exp(data, modelClasses);
+		return data;
 	}
-	
+
 	/**
 	 * 将导入的Excel转换为模型对象
 	 * 
@@ -81,17 +158,34 @@ public class ExcelImportExportTools {
 	 * @return 转换后的模型对象，外侧List每个元素针对一个sheet页（无需导入的也会有个null值），内侧元素的List表示每个sheet页转换成的模型数据
 	 */
 	public static List<List<Object>> imp(InputStream excelInput, Class<?>... modelClasses) {
+		return imp(null, excelInput, modelClasses);
+	}
+
+	/**
+	 * 将导入的Excel转换为模型对象，可以通过选项指定并行导入各sheet页或使用行转换流水线
+	 * <p>
+	 * 并行导入时改用流式方式（同{@link #impStreaming(ExcelImportOptions, InputStream, Class...)}），各sheet页在单独的线程中解析：
+	 * 整个工作簿加载后各sheet页共用同一个XML对象模型，读取单元格时会相互等待，并行读取没有效果。此时公式单元格取文件中缓存的计算结果。
+	 * 
+	 * @param options      导入选项，为null时使用默认选项
+	 * @param excelInput   Excel文件输入流
+	 * @param modelClasses 导入模型信息，每个模型针对一个sheet页，如果有某个sheet页无需导入，可以传一个null值表示跳过
+	 * @return 转换后的模型对象，格式同{@link #imp(InputStream, Class...)}，并行导入时也按sheet页顺序排列
+	 */
+	public static List<List<Object>> imp(ExcelImportOptions options, InputStream excelInput,
+			Class<?>... modelClasses) {
+		if (options != null && options.isParallel()) {
+			return impStreamingParallel(options, excelInput, modelClasses);
+		}
 		try {
-			List<List<Object>> result = new ArrayList<List<Object>>();
-			Workbook wb = new XSSFWorkbook(excelInput);
+			long openStart = System.nanoTime();
+			Workbook wb = new XSSFWorkbook(ExcelImportLimits.checkUncompressedSize(options, excelInput));
+			metricsListener.phaseCompleted(ExcelMetricsPhase.IMPORT_OPEN, -1, System.nanoTime() - openStart);
+			List<List<Object>> result = new ArrayList<List<Object>>(modelClasses.length);
 			for (int i = 0; i < modelClasses.length; i++) {
-				if (modelClasses[i] == null) {
-					result.add(null);
-				} else {
-					Sheet sheet = wb.getSheetAt(i);
-					List<Object> list = importSheet(wb, sheet, modelClasses[i]);
-					result.add(list);
-				}
+				Class<?> modelClass = modelClasses[i];
+				result.add(modelClass == null ? null
+						: importSheet(new ExcelCellReader(wb), wb.getSheetAt(i), i, modelClass, options));
 			}
 			return result;
 		} catch (RuntimeException e) {
@@ -112,6 +206,247 @@ public class ExcelImportExportTools {
 		return imp(new ByteArrayInputStream(excelFile), modelClasses);
 	}
 
+	/**
+	 * 将导入的Excel转换为模型对象，可以通过选项指定并行导入各sheet页或使用行转换流水线
+	 * 
+	 * @param options      导入选项，为null时使用默认选项
+	 * @param excelFile    Excel文件内容
+	 * @param modelClasses 导入模型信息，每个模型针对一个sheet页，如果有某个sheet页无需导入，可以传一个null值表示跳过
+	 * @return 转换后的模型对象，格式同{@link #imp(InputStream, Class...)}
+	 */
+	public static List<List<Object>> imp(ExcelImportOptions options, byte[] excelFile, Class<?>... modelClasses) {
+		return imp(options, new ByteArrayInputStream(excelFile), modelClasses);
+	}
+
+	/**
+	 * 以流式（SAX事件模型）方式将导入的Excel转换为模型对象，不构建整个工作簿的对象模型，适用于大文件导入
+	 *
+	 * @param excelInput   Excel文件输入流
+	 * @param modelClasses 导入模型信息，每个模型针对一个sheet页，如果有某个sheet页无需导入，可以传一个null值表示跳过
+	 * @return 转换后的模型对象，格式同{@link #imp(InputStream, Class...)}
+	 */
+	public static List<List<Object>> impStreaming(InputStream excelInput, Class<?>... modelClasses) {
+		return impStreaming(null, excelInput, modelClasses);
+	}
+
+	/**
+	 * 以流式方式将导入的Excel转换为模型对象，可以通过选项指定并行解析各sheet页或使用行转换流水线
+	 *
+	 * @param options      导入选项，为null时使用默认选项
+	 * @param excelInput   Excel文件输入流
+	 * @param modelClasses 导入模型信息，每个模型针对一个sheet页，如果有某个sheet页无需导入，可以传一个null值表示跳过
+	 * @return 转换后的模型对象，格式同{@link #imp(InputStream, Class...)}，并行导入时也按sheet页顺序排列
+	 */
+	public static List<List<Object>> impStreaming(ExcelImportOptions options, InputStream excelInput,
+			Class<?>... modelClasses) {
+		if (options != null && options.isParallel()) {
+			return impStreamingParallel(options, excelInput, modelClasses);
+		}
+		final List<List<Object>> result = new ArrayList<List<Object>>();
+		for (int i = 0; i < modelClasses.length; i++) {
+			result.add(modelClasses[i] == null ? null : new ArrayList<Object>());
+		}
+		impStreaming(options, excelInput, new ExcelImportHandler() {
+			@Override
+			public void handle(int sheetIndex, Object model) {
+				result.get(sheetIndex).add(model);
+			}
+		}, modelClasses);
+		return result;
+	}
+
+	/**
+	 * 以流式（SAX事件模型）方式导入Excel，每转换完一行即交给handler处理，内存占用只与单行数据相关
+	 * <p>
+	 * 单元格的解析、下拉选项翻译及校验规则与{@link #imp(InputStream, Class...)}相同，公式单元格取文件中缓存的计算结果。
+	 *
+	 * @param excelInput   Excel文件输入流
+	 * @param handler      模型对象处理器
+	 * @param modelClasses 导入模型信息，每个模型针对一个sheet页，如果有某个sheet页无需导入，可以传一个null值表示跳过
+	 */
+	public static void impStreaming(InputStream excelInput, ExcelImportHandler handler, Class<?>... modelClasses) {
+		impStreaming(null, excelInput, handler, modelClasses);
+	}
+
+	/**
+	 * 以流式方式导入Excel，每转换完一行即交给handler处理，可以通过选项指定使用行转换流水线
+	 * <p>
+	 * 使用流水线时各行在线程池中转换及校验，handler仍在调用线程中按行顺序调用（不会并发调用）。此方法中各sheet页按顺序解析，不支持并行导入各sheet页。
+	 *
+	 * @param options      导入选项，为null时使用默认选项
+	 * @param excelInput   Excel文件输入流
+	 * @param handler      模型对象处理器
+	 * @param modelClasses 导入模型信息，每个模型针对一个sheet页，如果有某个sheet页无需导入，可以传一个null值表示跳过
+	 */
+	public static void impStreaming(ExcelImportOptions options, InputStream excelInput, ExcelImportHandler handler,
+			Class<?>... modelClasses) {
+		StreamingWorkbookReader workbookReader = null;
+		try {
+			long openStart = System.nanoTime();
+			workbookReader = new StreamingWorkbookReader(excelInput, options);
+			metricsListener.phaseCompleted(ExcelMetricsPhase.IMPORT_OPEN, -1, System.nanoTime() - openStart);
+			Iterator<InputStream> sheetIterator = workbookReader.getSheetsData();
+			for (int i = 0; i < modelClasses.length && sheetIterator.hasNext(); i++) {
+				InputStream sheetInput = sheetIterator.next();
+				try {
+					if (modelClasses[i] != null) {
+						StreamingSheetHandler sheetHandler = new StreamingSheetHandler(i, modelClasses[i], options,
+								handler);
+						try {
+							parseSheet(workbookReader.createSheetXMLHandler(sheetHandler), sheetInput);
+							sheetHandler.finish();
+						} finally {
+							sheetHandler.close();
+						}
+					}
+				} finally {
+					sheetInput.close();
+				}
+			}
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		} finally {
+			if (workbookReader != null) {
+				workbookReader.close();
+			}
+		}
+	}
+
+	/**
+	 * 打开一个sheet页的导入游标，按需逐行（或按批）获取转换并校验后的模型对象，适用于边读边分批入库的场景
+	 * <p>
+	 * 游标基于流式解析，内存占用与总行数无关；使用完毕后必须调用{@link ExcelImportCursor#close()}释放临时文件。
+	 *
+	 * @param excelInput Excel文件输入流，打开游标时即读取完毕，之后可以关闭
+	 * @param sheetIndex sheet页序号，从0开始
+	 * @param modelClass 导入模型类
+	 * @return 导入游标
+	 */
+	public static <T> ExcelImportCursor<T> impCursor(InputStream excelInput, int sheetIndex, Class<T> modelClass) {
+		return impCursor(null, excelInput, sheetIndex, modelClass);
+	}
+
+	/**
+	 * 按导入选项打开一个sheet页的导入游标，批大小、校验、进度等选项与{@link #impStreaming(ExcelImportOptions, InputStream, Class...)}相同
+	 * <p>
+	 * 行按批（{@link ExcelImportOptions#getBatchSize()}）转换及校验，游标每次向前解析一批；使用流水线时各批在线程池中转换。
+	 *
+	 * @param options    导入选项，为null时使用默认选项（逐行转换）
+	 * @param excelInput Excel文件输入流，打开游标时即读取完毕，之后可以关闭
+	 * @param sheetIndex sheet页序号，从0开始
+	 * @param modelClass 导入模型类
+	 * @return 导入游标
+	 */
+	public static <T> ExcelImportCursor<T> impCursor(ExcelImportOptions options, InputStream excelInput,
+			int sheetIndex, Class<T> modelClass) {
+		StreamingWorkbookReader workbookReader = null;
+		try {
+			workbookReader = new StreamingWorkbookReader(excelInput, options);
+			ExcelImportCursor<T> cursor = new ExcelImportCursor<T>(modelClass, workbookReader,
+					workbookReader.getSheetData(sheetIndex));
+			StreamingSheetHandler sheetHandler = new StreamingSheetHandler(sheetIndex, modelClass, options,
+					cursor.getRowHandler());
+			cursor.setContentHandler(workbookReader.createSheetXMLHandler(sheetHandler), sheetHandler);
+			return cursor;
+		} catch (Exception e) {
+			if (workbookReader != null) {
+				workbookReader.close();
+			}
+			if (e instanceof RuntimeException) {
+				throw (RuntimeException) e;
+			}
+			throw new RuntimeException(e);
+		}
+	}
+
+	/** 并行流式导入，每个sheet页单独解析 */
+	private static List<List<Object>> impStreamingParallel(final ExcelImportOptions options, InputStream excelInput,
+			Class<?>... modelClasses) {
+		StreamingWorkbookReader workbookReader = null;
+		List<InputStream> sheetInputs = new ArrayList<InputStream>();
+		try {
+			long openStart = System.nanoTime();
+			final StreamingWorkbookReader reader = workbookReader = new StreamingWorkbookReader(excelInput,
+					options);
+			metricsListener.phaseCompleted(ExcelMetricsPhase.IMPORT_OPEN, -1, System.nanoTime() - openStart);
+			Iterator<InputStream> sheetIterator = reader.getSheetsData();
+			List<Callable<List<Object>>> tasks = new ArrayList<Callable<List<Object>>>();
+			for (int i = 0; i < modelClasses.length && sheetIterator.hasNext(); i++) {
+				final InputStream sheetInput = sheetIterator.next();
+				sheetInputs.add(sheetInput);
+				final int sheetIndex = i;
+				final Class<?> modelClass = modelClasses[i];
+				tasks.add(new Callable<List<Object>>() {
+					@Override
+					public List<Object> call() throws Exception {
+						if (modelClass == null) {
+							return null;
+						}
+						final List<Object> list = new ArrayList<Object>();
+						// 各sheet页已并行，每个sheet页内不使用流水线（见ExcelRowPipeline）
+						StreamingSheetHandler sheetHandler = new StreamingSheetHandler(sheetIndex, modelClass, options,
+								new ExcelImportHandler() {
+									@Override
+									public void handle(int sheetIndex, Object model) {
+										list.add(model);
+									}
+								});
+						try {
+							// 格式化器不是线程安全的，每个sheet页单独创建
+							parseSheet(reader.createSheetXMLHandler(sheetHandler, new DataFormatter()), sheetInput);
+							sheetHandler.finish();
+						} finally {
+							sheetHandler.close();
+						}
+						return list;
+					}
+				});
+			}
+			return runSheetTasks(options, tasks);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		} finally {
+			for (InputStream sheetInput : sheetInputs) {
+				try {
+					sheetInput.close();
+				} catch (Exception e) {
+					// ignore
+				}
+			}
+			if (workbookReader != null) {
+				workbookReader.close();
+			}
+		}
+	}
+
+	/** 解析sheet页XML，连续空行数达到上限时提前结束 */
+	private static void parseSheet(ContentHandler contentHandler, InputStream sheetInput) throws Exception {
+		XMLReader xmlReader = SAXHelper.newXMLReader();
+		xmlReader.setContentHandler(contentHandler);
+		try {
+			xmlReader.parse(new InputSource(sheetInput));
+		} catch (ExcelImportLimits.SheetEndException e) {
+			// 之后的行不再读取
+		}
+	}
+
+	/** 执行各sheet页的导入任务，并行导入时提交到线程池，结果按sheet页顺序排列 */
+	private static List<List<Object>> runSheetTasks(ExcelImportOptions options, List<Callable<List<Object>>> tasks)
+			throws Exception {
+		if (options != null && options.isParallel()) {
+			return ParallelTasks.invokeAll(options.getExecutor(), tasks);
+		}
+		List<List<Object>> result = new ArrayList<List<Object>>(tasks.size());
+		for (Callable<List<Object>> task : tasks) {
+			result.add(task.call());
+		}
+		return result;
+	}
+
 	/**
 	 * 将模型对象导出成Excel文件
 	 * 
@@ -120,6 +455,96 @@ public class ExcelImportExportTools {
 	 * @return 导出的Excel文件内容
 	 */
 	public static byte[] exp(List<List<Object>> data, Class<?>... modelClasses) {
+		return exp(data, new ExcelExportOptions(), modelClasses);
+	}
+
+	/**
+	 * 将模型对象导出成Excel文件
+	 *
+	 * @param data         模型对象，外侧List每个元素针对一个sheet页，内侧元素的List表示每个sheet页中的模型数据
+	 * @param options      导出选项，如是否使用流式导出等
+	 * @param modelClasses 导出的模型信息，每个模型针对一个sheet页
+	 * @return 导出的Excel文件内容
+	 */
+	public static byte[] exp(List<List<Object>> data, ExcelExportOptions options, Class<?>... modelClasses) {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		exp(data, options, baos, modelClasses);
+		return baos.toByteArray();
+	}
+
+	/**
+	 * 将模型对象导出成Excel文件，直接写出到输出流（输出流不会被关闭），避免在内存中保留整个文件内容
+	 *
+	 * @param data         模型对象，外侧List每个元素针对一个sheet页，内侧元素的List表示每个sheet页中的模型数据
+	 * @param out          输出流，如Servlet响应的输出流
+	 * @param modelClasses 导出的模型信息，每个模型针对一个sheet页
+	 */
+	public static void exp(List<List<Object>> data, OutputStream out, Class<?>... modelClasses) {
+		exp(data, new ExcelExportOptions(), out, modelClasses);
+	}
+
+	/**
+	 * 将模型对象导出成Excel文件，直接写出到通道（通道不会被关闭）
+	 *
+	 * @param data         模型对象，外侧List每个元素针对一个sheet页，内侧元素的List表示每个sheet页中的模型数据
+	 * @param options      导出选项，如是否使用流式导出、输出分块大小等
+	 * @param channel      输出通道
+	 * @param modelClasses 导出的模型信息，每个模型针对一个sheet页
+	 */
+	public static void exp(List<List<Object>> data, ExcelExportOptions options, WritableByteChannel channel,
+			Class<?>... modelClasses) {
+		exp(data, options, Channels.newOutputStream(channel), modelClasses);
+	}
+
+	/**
+	 * 将模型对象导出成Excel文件，直接写出到输出流（输出流不会被关闭）
+	 *
+	 * @param data         模型对象，外侧List每个元素针对一个sheet页，内侧元素的List表示每个sheet页中的模型数据
+	 * @param options      导出选项，如是否使用流式导出、输出分块大小等
+	 * @param out          输出流，如Servlet响应的输出流
+	 * @param modelClasses 导出的模型信息，每个模型针对一个sheet页
+	 */
+	public static void exp(List<List<Object>> data, ExcelExportOptions options, OutputStream out,
+			Class<?>... modelClasses) {
+		if (data == null) {
+			throw new IllegalArgumentException("data不能为null");
+		}
+		List<Iterator<?>> rowIterators = new ArrayList<Iterator<?>>(data.size());
+		for (List<Object> sheetData : data) {
+			rowIterators.add(sheetData == null ? null : sheetData.iterator());
+		}
+		expIterator(rowIterators, options, out, modelClasses);
+	}
+
+	/**
+	 * 将逐行提供的模型对象导出成Excel文件，数据无需事先全部加载到内存中（如从数据库游标逐条读取），一般配合流式导出选项使用
+	 *
+	 * @param data         模型对象，外侧List每个元素针对一个sheet页，内侧的Iterator按顺序提供每个sheet页中的模型数据
+	 * @param options      导出选项，如是否使用流式导出等
+	 * @param modelClasses 导出的模型信息，每个模型针对一个sheet页
+	 * @return 导出的Excel文件内容
+	 */
+	public static byte[] expIterator(List<? extends Iterator<?>> data, ExcelExportOptions options,
+			Class<?>... modelClasses) {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		expIterator(data, options, baos, modelClasses);
+		return baos.toByteArray();
+	}
+
+	/**
+	 * 将逐行提供的模型对象导出成Excel文件，直接写出到输出流（输出流不会被关闭）
+	 *
+	 * @param data         模型对象，外侧List每个元素针对一个sheet页，内侧的Iterator按顺序提供每个sheet页中的模型数据
+	 * @param options      导出选项，如是否使用流式导出、输出分块大小等
+	 * @param out          输出流，如Servlet响应的输出流
+	 * @param modelClasses 导出的模型信息，每个模型针对一个sheet页
+	 */
+	public static void expIterator(List<? extends Iterator<?>> data, ExcelExportOptions options, OutputStream out,
+			Class<?>... modelClasses) {
+		if (options == null) {
+			options = new ExcelExportOptions();
+		}
+		Workbook wb = null;
 		try {
 			if (data == null) {
 				throw new IllegalArgumentException("data不能为null");
@@ -130,28 +555,155 @@ public class ExcelImportExportTools {
 			if (data.size() != modelClasses.length) {
 				throw new IllegalArgumentException("modelClasses个数必须与data对应");
 			}
-			Workbook wb = new XSSFWorkbook();
+			wb = createExportWorkbook(options);
 			for (Class<?> modelClass : modelClasses) {
 				makeExportSheet(wb, modelClass);
 			}
-			int i = 0;
-			for (Class<?> modelClass : modelClasses) {
-				exportSheet(wb, wb.getSheetAt(i), modelClass, data.get(i));
-				i++;
+			// 样式在各sheet页之间共用
+			ExcelStyleRegistry styleRegistry = new ExcelStyleRegistry(wb);
+			List<SheetExport> sheetExports = new ArrayList<SheetExport>(modelClasses.length);
+			for (int i = 0; i < modelClasses.length; i++) {
+				sheetExports.add(new SheetExport(wb, styleRegistry, options, i, modelClasses[i], data.get(i)));
+			}
+			if (options.isParallel() && wb instanceof SXSSFWorkbook && sheetExports.size() > 1) {
+				exportSheetsParallel(options, sheetExports);
+			} else {
+				for (SheetExport sheetExport : sheetExports) {
+					sheetExport.prepare();
+					sheetExport.writeRows();
+					sheetExport.finish();
+				}
 			}
-			ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			wb.write(baos);
-			return baos.toByteArray();
+			// 写出整个文件前最后检查一次是否已取消
+			if (options.getProgress() != null) {
+				options.getProgress().checkCancelled();
+			}
+			long writeStart = System.nanoTime();
+			ExportOutputStream exportOut = new ExportOutputStream(out, options.getOutputChunkSize());
+			wb.write(exportOut);
+			exportOut.close();
+			metricsListener.phaseCompleted(ExcelMetricsPhase.EXPORT_SERIALIZE, -1, System.nanoTime() - writeStart);
+			metricsListener.bytesWritten(exportOut.getBytesWritten());
 		} catch (RuntimeException e) {
 			throw e;
 		} catch (Exception e) {
 			throw new RuntimeException(e);
+		} finally {
+			disposeWorkbook(wb);
+		}
+	}
+
+	/**
+	 * 将错误信息直接标注到导入的原始文件中，不重新生成文件
+	 * <p>
+	 * 有错误的对象按导入时记录的行号（{@link ExcelModelBase#getRowNumber()}）找到原文件中的行，错误行及错误单元格标色，最后一列写入错误信息。
+	 * 原文件中的其他内容（没有错误的行、格式、其他sheet页等）保持不变。
+	 * <p>
+	 * 注意：原文件会完整加载为XSSFWorkbook，内存占用与普通导入相同（一般为文件大小的数十倍，随行数、单元格数增长），
+	 * 不适合流式导入的大文件；大文件请使用{@link ExcelExportOptions#errorRowsOnly()}只导出错误行。
+	 *
+	 * @param excelFile    导入的原始文件内容
+	 * @param data         导入（并添加过错误信息）的模型对象，格式同导入时返回的数据
+	 * @param modelClasses 导入模型信息，与导入时相同，为null的sheet页不处理
+	 * @return 标注错误信息后的Excel文件内容
+	 */
+	public static byte[] expErrorsInPlace(byte[] excelFile, List<List<Object>> data, Class<?>... modelClasses) {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		expErrorsInPlace(new ByteArrayInputStream(excelFile), data, baos, modelClasses);
+		return baos.toByteArray();
+	}
+
+	/**
+	 * 将错误信息直接标注到导入的原始文件中，写出到输出流（输出流不会被关闭），说明同{@link #expErrorsInPlace(byte[], List, Class...)}
+	 * <p>
+	 * 注意：输入流的内容同样会完整加载到内存中，大文件请使用{@link ExcelExportOptions#errorRowsOnly()}只导出错误行。
+	 *
+	 * @param excelInput   导入的原始文件输入流
+	 * @param data         导入（并添加过错误信息）的模型对象，格式同导入时返回的数据
+	 * @param out          输出流
+	 * @param modelClasses 导入模型信息，与导入时相同，为null的sheet页不处理
+	 */
+	public static void expErrorsInPlace(InputStream excelInput, List<List<Object>> data, OutputStream out,
+			Class<?>... modelClasses) {
+		XSSFWorkbook wb = null;
+		try {
+			if (data == null) {
+				throw new IllegalArgumentException("data不能为null");
+			}
+			if (modelClasses == null) {
+				throw new IllegalArgumentException("modelClasses不能为null");
+			}
+			if (data.size() != modelClasses.length) {
+				throw new IllegalArgumentException("modelClasses个数必须与data对应");
+			}
+			wb = new XSSFWorkbook(excelInput);
+			ExcelErrorPatcher patcher = new ExcelErrorPatcher(wb);
+			for (int i = 0; i < modelClasses.length; i++) {
+				if (modelClasses[i] != null && data.get(i) != null) {
+					patcher.patchSheet(wb.getSheetAt(i), modelClasses[i], data.get(i));
+				}
+			}
+			wb.write(out);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		} finally {
+			if (wb != null) {
+				try {
+					wb.close();
+				} catch (Exception e) {
+					// ignore
+				}
+			}
+		}
+	}
+
+	/**
+	 * 并行写出各sheet页的数据行
+	 * <p>
+	 * 流式导出时各sheet页的数据行写入各自的临时文件（即各sheet页的XML部件），写出时只读取工作簿级别的对象，可以并行；
+	 * 样式、批注及下拉框参照名称等工作簿级别的修改在并行前后按sheet页顺序进行，导出结果与串行导出相同。
+	 */
+	private static void exportSheetsParallel(ExcelExportOptions options, List<SheetExport> sheetExports) {
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(sheetExports.size());
+		for (final SheetExport sheetExport : sheetExports) {
+			sheetExport.prepare();
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					sheetExport.writeRows();
+					return null;
+				}
+			});
+		}
+		ParallelTasks.invokeAll(options.getExecutor(), tasks);
+		for (SheetExport sheetExport : sheetExports) {
+			sheetExport.finish();
+		}
+	}
+
+	/** 根据导出选项创建工作簿 */
+	private static Workbook createExportWorkbook(ExcelExportOptions options) {
+		if (options != null && options.isStreaming()) {
+			SXSSFWorkbook wb = new SXSSFWorkbook(options.getRowAccessWindowSize());
+			wb.setCompressTempFiles(options.isCompressTempFiles());
+			return wb;
+		} else {
+			return new XSSFWorkbook();
+		}
+	}
+
+	/** 释放工作簿占用的资源（流式导出时删除临时文件） */
+	private static void disposeWorkbook(Workbook wb) {
+		if (wb instanceof SXSSFWorkbook) {
+			((SXSSFWorkbook) wb).dispose();
 		}
 	}
 
 	/** 创建导出sheet页 */
 	private static Sheet makeExportSheet(Workbook wb, Class<?> modelClass) throws Exception {
-		ExcelSheet sheetInfo = modelClass.getAnnotation(ExcelSheet.class);
+		ExcelSheet sheetInfo = ExcelModelDescriptor.of(modelClass).sheetInfo;
 		if (sheetInfo == null) {
 			throw new IllegalArgumentException("Excel模型类" + modelClass.getName() + "未包含@ExcelSheet标注信息");
 		}
@@ -160,332 +712,221 @@ public class ExcelImportExportTools {
 		return sheet;
 	}
 
-	/** 导入模板单sheet处理 */
-	private static void exportSheet(Workbook wb, Sheet sheet, Class<?> modelClass, List<Object> data) throws Exception {
-		// data不能为null或空数组，如果是这种情况插入一个元素（元素可以为null）作为样例行
-		if (data == null || data.isEmpty()) {
-			data = new ArrayList<Object>();
-			data.add(null);
-		}
-
-		List<ExcelColumnInfo> columnInfoList = getColumnInfos(modelClass);
-		// 样式
-		CellStyle[] headerCellStyles = new CellStyle[columnInfoList.size()];
-		CellStyle[] dataCellStyles = new CellStyle[columnInfoList.size()];
-		CellStyle[] errorRowNormalCellStyles = new CellStyle[columnInfoList.size()];
-		CellStyle[] errorRowErrorCellStyles = new CellStyle[columnInfoList.size()];
-		CellStyle errorMessageCellStyle = getErrorMessageCellStyle(wb);
-		int columnNum = 0;
-		for (ExcelColumnInfo columnInfo : columnInfoList) {
-			headerCellStyles[columnNum] = getHeaderCellStyle(wb, columnInfo);
-			dataCellStyles[columnNum] = getCellStyle(wb, columnInfo);
-			errorRowNormalCellStyles[columnNum] = getErrorRowNormalCellStyle(wb, columnInfo);
-			errorRowErrorCellStyles[columnNum] = getErrorRowErrorCellStyle(wb, columnInfo);
-			columnNum++;
-		}
-
-		// 表头
-		Drawing<?> drawing = sheet.createDrawingPatriarch();
-		CreationHelper creationHelper = wb.getCreationHelper();
-		Row headerRow = sheet.createRow(0);
-		columnNum = 0;
-		for (ExcelColumnInfo columnInfo : columnInfoList) {
-			Cell cell = headerRow.createCell(columnNum, CellType.STRING);
-			cell.setCellValue(columnInfo.annotation.name());
-			cell.setCellStyle(headerCellStyles[columnNum]);
-			if (Utils.isNotBlank(columnInfo.annotation.notes())) {
-				ClientAnchor anchor = creationHelper.createClientAnchor();
-				anchor.setCol1(cell.getColumnIndex());
-				anchor.setCol2(cell.getColumnIndex() + 3);
-				anchor.setRow1(cell.getRowIndex() + 1);
-				anchor.setRow2(cell.getRowIndex() + 4);
-				Comment comment = drawing.createCellComment(anchor);
-				comment.setString(creationHelper.createRichTextString(columnInfo.annotation.notes()));
-				comment.setVisible(false);
-				cell.setCellComment(comment);
-			}
-			columnNum++;
-		}
-
-		// 数据行
-		for (int i = 0; i < data.size(); i++) {
-			Object item = data.get(i);
-			boolean hasError = item != null && item instanceof ExcelModelBase && ((ExcelModelBase) item).hasError();
-			Row row = sheet.createRow(i + 1);
-			columnNum = 0;
-			for (ExcelColumnInfo columnInfo : columnInfoList) {
-				String fieldName = columnInfo.field.getName();
-				Class<?> fieldType = columnInfo.field.getType();
-				Cell cell = null;
-				if (hasError && ((ExcelModelBase) item).hasFieldError(columnInfo.field.getName())) {
-					cell = row.createCell(columnNum, CellType.STRING);
-					cell.setCellStyle(errorRowErrorCellStyles[columnNum]);
-					cell.setCellValue(((ExcelModelBase) item).getOriginalValue(fieldName));
-				} else {
-					if (Number.class.isAssignableFrom(fieldType) || Date.class.isAssignableFrom(fieldType)) {
-						cell = row.createCell(columnNum, CellType.NUMERIC);
-					} else {
-						cell = row.createCell(columnNum, CellType.STRING);
+	/** 导入单sheet处理，options指定使用流水线时，单元格值在当前线程读取，转换及校验在线程池中进行 */
+	private static List<Object> importSheet(ExcelCellReader cellReader, Sheet sheet, int sheetIndex,
+			Class<?> modelClass, ExcelImportOptions options) throws Exception {
+		long start = System.nanoTime();
+		final List<Object> result = new ArrayList<Object>();
+		ExcelRowPipeline pipeline = new ExcelRowPipeline(options, sheetIndex, modelClass, newRowMapper(modelClass),
+				new ExcelImportHandler() {
+					@Override
+					public void handle(int sheetIndex, Object model) {
+						result.add(model);
 					}
-					if (hasError) {
-						cell.setCellStyle(errorRowNormalCellStyles[columnNum]);
-					} else {
-						cell.setCellStyle(dataCellStyles[columnNum]);
-					}
-					// 设值
-					if (item != null) {
-						Object cellValue = columnInfo.field.get(item);
-						if (cellValue != null) {
-							if (cellValue instanceof Date) {
-								cell.setCellValue((Date) cellValue);
-							} else if (cellValue instanceof Number) {
-								cell.setCellValue(((Number) cellValue).doubleValue());
-							} else {
-								List<ExcelColumnSelectionItem> selectionItems = columnInfo.getSelectionItems();
-								if (selectionItems != null) {
-									for (ExcelColumnSelectionItem selectionItem : selectionItems) {
-										if (Utils.equals(selectionItem.getValue(), cellValue.toString())) {
-											cellValue = selectionItem.getName();
-											break;
-										}
-									}
-								}
-								cell.setCellValue(cellValue.toString());
-							}
+				});
+		ExcelImportLimits limits = new ExcelImportLimits(options, sheetIndex);
+		try {
+			List<ExcelColumnInfo> columnInfos = getColumnInfos(modelClass);
+			// 只遍历文件中存在的行，不存在的行（中间缺少的行）由limits按空行计算
+			Iterator<Row> rowIterator = sheet.rowIterator();
+			while (rowIterator.hasNext()) {
+				Row row = rowIterator.next();
+				int rowNumber = row.getRowNum() + 1;
+				// 第一行为列头
+				if (rowNumber == 1) {
+					continue;
+				}
+				limits.checkColumns(row.getLastCellNum(), rowNumber);
+				Object[] rowValues = null;
+				// 只有格式没有值的行（如导入模板中预设样式的行）不读取单元格的值，也不创建模型对象
+				if (!isBlankRow(row, columnInfos.size())) {
+					rowValues = new Object[columnInfos.size()];
+					for (int c = 0; c < rowValues.length; c++) {
+						rowValues[c] = readCellValue(cellReader, row.getCell(c), columnInfos.get(c));
+						if (rowValues[c] instanceof String) {
+							limits.checkCellLength((String) rowValues[c], rowNumber, c);
 						}
 					}
+					if (isBlankRow(rowValues)) {
+						rowValues = null;
+					}
+				}
+				if (!limits.row(rowNumber, rowValues == null)) {
+					break;
+				}
+				if (rowValues != null) {
+					pipeline.add(rowNumber, rowValues);
 				}
-				columnNum++;
-			}
-			if (hasError) {
-				ExcelModelBase modelBase = (ExcelModelBase) item;
-				Cell cell = row.createCell(columnNum, CellType.STRING);
-				cell.setCellStyle(errorMessageCellStyle);
-				String allErrorMessages = Utils.join(modelBase.getAllErrors(), ";");
-				cell.setCellValue(allErrorMessages);
 			}
+			pipeline.finish();
+			reportSheetImported(pipeline, sheetIndex, modelClass, start);
+		} finally {
+			pipeline.close();
 		}
+		return result;
+	}
 
-		// 可选项
-		columnNum = 0;
-		for (ExcelColumnInfo columnInfo : columnInfoList) {
-			if (columnInfo.annotation.selectionProvider() != null) {
-				ExcelColumnSelectionProvider provider = getExcelColumnSelectionProvider(
-						columnInfo.annotation.selectionProvider());
-				List<ExcelColumnSelectionItem> items = provider.selectionItems(columnInfo.annotation.selectionType());
-				if (items != null) {
-					if (Utils.isBlank(columnInfo.annotation.selectionRefField())) {
-						// 非级联下拉
-						String baseName = createRefSheetWithNames(wb, columnInfo);
-						DataValidationConstraint dvc = sheet.getDataValidationHelper()
-								.createFormulaListConstraint(baseName);
-						CellRangeAddressList range = new CellRangeAddressList(1, data.size(), columnNum, columnNum);
-						sheet.addValidationData(sheet.getDataValidationHelper().createValidation(dvc, range));
-					} else {
-						// 级联查询，需要创建参照sheet
-						String baseName = createRefSheetWithNames(wb, columnInfo);
-						int refColumnIndex = -1;
-						for (int i = 0; i < columnInfoList.size(); i++) {
-							if (Utils.equals(columnInfo.annotation.selectionRefField(),
-									columnInfoList.get(i).field.getName())) {
-								refColumnIndex = i;
-								break;
-							}
-						}
-						if (refColumnIndex < 0) {
-							throw new RuntimeException(
-									"selectionRefField指定的字段" + columnInfo.annotation.selectionRefField() + "不存在");
-						}
-						String refColumnName = numberToColumnHead(refColumnIndex + 1);
-						String formula = "INDIRECT(CONCATENATE(\"" + baseName + "_\",$" + refColumnName + "2))";
-						DataValidationConstraint dvc = sheet.getDataValidationHelper()
-								.createFormulaListConstraint(formula);
-						CellRangeAddressList range = new CellRangeAddressList(1, data.size(), columnNum, columnNum);
-						sheet.addValidationData(sheet.getDataValidationHelper().createValidation(dvc, range));
+	/**
+	 * 按单元格类型快速判断行是否为空，不读取及格式化单元格的值。公式单元格按非空处理，由读取后的值判断
+	 *
+	 * @param row         行
+	 * @param columnCount 模型的列数，之后的单元格不导入，不需要判断
+	 */
+	private static boolean isBlankRow(Row row, int columnCount) {
+		for (int c = 0; c < columnCount; c++) {
+			Cell cell = row.getCell(c);
+			if (cell != null) {
+				CellType cellType = cell.getCellTypeEnum();
+				if (cellType == CellType.STRING) {
+					if (Utils.isNotBlank(cell.getStringCellValue())) {
+						return false;
 					}
+				} else if (cellType != CellType.BLANK) {
+					return false;
 				}
 			}
-			columnNum++;
 		}
+		return true;
+	}
 
-		// 宽度设置
-		columnNum = 0;
-		for (ExcelColumnInfo columnInfo : columnInfoList) {
-			if (columnInfo.annotation.width() > 0) {
-				sheet.setColumnWidth(columnNum, columnInfo.annotation.width() * 256);
-			} else {
-				sheet.autoSizeColumn(columnNum);
-			}
-			columnNum++;
-		}
-		// 最后一列（错误信息）
-		sheet.setColumnWidth(columnNum, 25600);
-	}
-
-	/** 导入单sheet处理 */
-	private static List<Object> importSheet(Workbook wb, Sheet sheet, Class<?> modelClass) throws Exception {
-		List<Object> result = new ArrayList<Object>();
-		List<ExcelColumnInfo> columnInfos = getColumnInfos(modelClass);
-		for (int r = 1; r <= sheet.getLastRowNum(); r++) {
-			Row row = sheet.getRow(r);
-			if (row != null) {
-				Object model = modelClass.newInstance();
-				boolean isAllNull = true;
-				for (int c = 0; c < columnInfos.size(); c++) {
-					Cell cell = row.getCell(c);
-					ExcelColumnInfo columnInfo = columnInfos.get(c);
-					if (readCellValueToModel(wb, cell, columnInfo, model)) {
-						isAllNull = false;
-					}
+	/** 整行单元格的值是否都为空（null或空白字符串），在转换为模型对象前判断 */
+	private static boolean isBlankRow(Object[] rowValues) {
+		for (Object value : rowValues) {
+			if (value != null && (!(value instanceof String) || Utils.isNotBlank((String) value))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** 通知监控接口sheet页导入完成，解析耗时不含校验耗时（使用流水线时两者重叠，为近似值） */
+	private static void reportSheetImported(ExcelRowPipeline pipeline, int sheetIndex, Class<?> modelClass,
+			long startNanos) {
+		ExcelMetricsListener listener = metricsListener;
+		long nanos = System.nanoTime() - startNanos;
+		long validateNanos = pipeline.getValidateNanos();
+		listener.phaseCompleted(ExcelMetricsPhase.IMPORT_PARSE, sheetIndex, Math.max(0, nanos - validateNanos));
+		listener.phaseCompleted(ExcelMetricsPhase.IMPORT_VALIDATE, sheetIndex, validateNanos);
+		listener.sheetImported(sheetIndex, modelClass, pipeline.getRowCount(), pipeline.getCellCount(),
+				pipeline.getErrorRowCount(), nanos);
+	}
+
+	/** 创建行转换器，下拉选项在创建时加载，之后只读，可以在多线程间共享 */
+	private static ExcelRowPipeline.RowMapper newRowMapper(Class<?> modelClass) {
+		final ExcelModelDescriptor descriptor = ExcelModelDescriptor.of(modelClass);
+		final List<ExcelColumnSelectionIndex> selectionIndexes = loadSelectionIndexes(descriptor.columns);
+		return new ExcelRowPipeline.RowMapper() {
+			@Override
+			public Object map(int rowNumber, Object[] rowValues) throws Exception {
+				Object model = readRowValuesToModel(rowValues, descriptor, selectionIndexes);
+				if (model instanceof ExcelModelBase) {
+					((ExcelModelBase) model).setRowNumber(rowNumber);
 				}
-				if (!isAllNull) {
-					// 集成Validator校验
-					if (model instanceof ExcelModelBase) {
-						ExcelModelBase modelBase = (ExcelModelBase) model;
-						Validator validator = validatorFactory.getValidator();
-						Set<ConstraintViolation<Object>> violations = validator.validate(model);
-						for (ConstraintViolation<Object> violation : violations) {
-							String fieldName = violation.getPropertyPath().iterator().next().getName();
-							String error = violation.getMessage();
-							// 如果已经有解析错误了，先不增加额外的错误信息
-							if (!modelBase.hasFieldError(fieldName)) {
-								modelBase.addFieldError(fieldName, error);
-							}
-						}
-					}
+				return model;
+			}
+		};
+	}
 
-					result.add(model);
+	/**
+	 * 将一行单元格的值转换为模型对象（校验由{@link ExcelRowPipeline}按批进行），整行为空时返回null
+	 * <p>
+	 * 单元格的值为字符串（单元格显示的值）或直接读取的数字、日期值（见{@link #readCellValue(ExcelCellReader, Cell, ExcelColumnInfo)}）。
+	 */
+	private static Object readRowValuesToModel(Object[] cellValues, ExcelModelDescriptor descriptor,
+			List<ExcelColumnSelectionIndex> selectionIndexes) throws Exception {
+		List<ExcelColumnInfo> columnInfos = descriptor.columns;
+		Object model = descriptor.modelClass.newInstance();
+		boolean isAllNull = true;
+		for (int c : descriptor.readOrder) {
+			Object cellValue = cellValues[c];
+			ExcelColumnInfo columnInfo = columnInfos.get(c);
+			if (cellValue == null || cellValue instanceof String) {
+				if (readStringValueToModel((String) cellValue, columnInfos, columnInfo, selectionIndexes.get(c),
+						model)) {
+					isAllNull = false;
+				}
+			} else {
+				if (model instanceof ExcelModelBase) {
+					((ExcelModelBase) model).setOriginalValue(columnInfo.index, columnInfos.size(),
+							ExcelCellReader.toOriginalValue(cellValue, columnInfo));
+				}
+				if (cellValue instanceof Date) {
+					cellValue = columnInfo.fromDate((Date) cellValue);
 				}
+				columnInfo.accessor.set(model, cellValue);
+				isAllNull = false;
 			}
 		}
-		return result;
+		if (isAllNull) {
+			return null;
+		}
+		return model;
 	}
 
-	/** 获取模型对象所有标注属性 */
-	private static List<ExcelColumnInfo> getColumnInfos(Class<?> modelClass) throws Exception {
-		List<ExcelColumnInfo> infoList = new ArrayList<ExcelColumnInfo>();
-		Field[] fields = modelClass.getDeclaredFields();
-		for (Field field : fields) {
-			ExcelColumn annotation = field.getAnnotation(ExcelColumn.class);
-			if (annotation != null) {
-				ExcelColumnInfo info = new ExcelColumnInfo();
-				field.setAccessible(true);
-				info.annotation = annotation;
-				info.field = field;
-				infoList.add(info);
-			}
+	/** 获取模型对象所有标注属性（预解析并缓存） */
+	private static List<ExcelColumnInfo> getColumnInfos(Class<?> modelClass) {
+		return ExcelModelDescriptor.of(modelClass).columns;
+	}
+
+	/** 获取各列的下拉选项并建立索引，每次导入导出只获取一次，没有下拉框的列为null */
+	private static List<ExcelColumnSelectionIndex> loadSelectionIndexes(List<ExcelColumnInfo> columnInfos) {
+		List<ExcelColumnSelectionIndex> selectionIndexes = new ArrayList<ExcelColumnSelectionIndex>(
+				columnInfos.size());
+		ExcelColumnSelectionCache cache = selectionCache;
+		for (ExcelColumnInfo columnInfo : columnInfos) {
+			List<ExcelColumnSelectionItem> items = columnInfo.loadSelectionItems(cache);
+			selectionIndexes.add(items == null ? null : new ExcelColumnSelectionIndex(items, columnInfo.refColumnIndex >= 0));
 		}
-		return infoList;
+		return selectionIndexes;
 	}
 
 	/** 导入模板及导出列头单元格样式 */
-	private static CellStyle getHeaderCellStyle(Workbook wb, ExcelColumnInfo columnInfo) {
-		CellStyle style = wb.createCellStyle();
-		if (columnInfo.annotation.horizontalAlignment() == ExcelColumnHorizontalAlignment.CENTER) {
-			style.setAlignment(HorizontalAlignment.CENTER);
-		} else if (columnInfo.annotation.horizontalAlignment() == ExcelColumnHorizontalAlignment.LEFT) {
-			style.setAlignment(HorizontalAlignment.LEFT);
-		} else if (columnInfo.annotation.horizontalAlignment() == ExcelColumnHorizontalAlignment.RIGHT) {
-			style.setAlignment(HorizontalAlignment.RIGHT);
-		}
-		style.setBorderLeft(BorderStyle.THIN);
-		style.setBorderRight(BorderStyle.THIN);
-		style.setBorderTop(BorderStyle.THIN);
-		style.setBorderBottom(BorderStyle.THIN);
-		style.setFillForegroundColor(IndexedColors.SKY_BLUE.index);
-		style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-		Font font = wb.createFont();
-		font.setBold(true);
-		style.setFont(font);
-		return style;
+	private static CellStyle getHeaderCellStyle(ExcelStyleRegistry styleRegistry, ExcelColumnInfo columnInfo) {
+		return styleRegistry.getStyle(ExcelStyleRegistry.StyleDef.of(getAlignment(columnInfo))
+				.fill(IndexedColors.SKY_BLUE.index, FillPatternType.SOLID_FOREGROUND).font(true, (short) -1));
 	}
 
 	/** 导入模板及导出数据单元格样式 */
-	@SuppressWarnings("unchecked")
-	private static CellStyle getCellStyle(Workbook wb, ExcelColumnInfo columnInfo) {
-		CellStyle style = wb.createCellStyle();
-		if (columnInfo.annotation.horizontalAlignment() == ExcelColumnHorizontalAlignment.CENTER) {
-			style.setAlignment(HorizontalAlignment.CENTER);
-		} else if (columnInfo.annotation.horizontalAlignment() == ExcelColumnHorizontalAlignment.LEFT) {
-			style.setAlignment(HorizontalAlignment.LEFT);
-		} else if (columnInfo.annotation.horizontalAlignment() == ExcelColumnHorizontalAlignment.RIGHT) {
-			style.setAlignment(HorizontalAlignment.RIGHT);
-		}
-		style.setBorderLeft(BorderStyle.THIN);
-		style.setBorderRight(BorderStyle.THIN);
-		style.setBorderTop(BorderStyle.THIN);
-		style.setBorderBottom(BorderStyle.THIN);
-		if (Utils.isNotBlank(columnInfo.annotation.dateFormat())) {
-			// 自定义日期格式
-			style.setDataFormat(
-					wb.getCreationHelper().createDataFormat().getFormat(columnInfo.annotation.dateFormat()));
-		} else if (String.class.equals(columnInfo.field.getType())) {
-			// 文本
-			style.setDataFormat((short) BuiltinFormats.getBuiltinFormat("@"));
-		} else if (Date.class.equals(columnInfo.field.getType())) {
-			// 日期
-			style.setDataFormat(wb.getCreationHelper().createDataFormat().getFormat("yyyy-MM-dd"));
-		} else if (Arrays.asList(Integer.class, Integer.TYPE, Long.class, Long.TYPE)
-				.contains(columnInfo.field.getType())) {
-			style.setDataFormat((short) BuiltinFormats.getBuiltinFormat("0"));
-		} else if (Arrays.asList(Double.class, Double.TYPE, Float.class, Float.TYPE)
-				.contains(columnInfo.field.getType())) {
-			style.setDataFormat((short) BuiltinFormats.getBuiltinFormat("0.00"));
-		} else {
-			// 常规
-			style.setDataFormat((short) 0);
-		}
-		return style;
+	private static CellStyle getCellStyle(ExcelStyleRegistry styleRegistry, ExcelColumnInfo columnInfo) {
+		return styleRegistry.getStyle(
+				ExcelStyleRegistry.StyleDef.of(getAlignment(columnInfo)).dataFormat(columnInfo.dataFormat));
 	}
 
 	/** 导出时错误行正常单元格样式 */
-	private static CellStyle getErrorRowNormalCellStyle(Workbook wb, ExcelColumnInfo columnInfo) {
-		CellStyle style = getCellStyle(wb, columnInfo);
-		style.setFillForegroundColor(IndexedColors.LIGHT_ORANGE.index);
-		style.setFillPattern(FillPatternType.FINE_DOTS);
-		return style;
+	private static CellStyle getErrorRowNormalCellStyle(ExcelStyleRegistry styleRegistry,
+			ExcelColumnInfo columnInfo) {
+		return styleRegistry.getStyle(ExcelStyleRegistry.StyleDef.of(getAlignment(columnInfo))
+				.dataFormat(columnInfo.dataFormat).fill(IndexedColors.LIGHT_ORANGE.index, FillPatternType.FINE_DOTS));
 	}
 
 	/** 导出时错误行错误单元格样式 */
-	private static CellStyle getErrorRowErrorCellStyle(Workbook wb, ExcelColumnInfo columnInfo) {
-		CellStyle style = wb.createCellStyle();
+	private static CellStyle getErrorRowErrorCellStyle(ExcelStyleRegistry styleRegistry,
+			ExcelColumnInfo columnInfo) {
+		return styleRegistry.getStyle(ExcelStyleRegistry.StyleDef.of(getAlignment(columnInfo))
+				.font(true, IndexedColors.RED.getIndex())
+				.fill(IndexedColors.LIGHT_ORANGE.index, FillPatternType.FINE_DOTS));
+	}
+
+	/** 导出时显示错误信息单元格样式 */
+	static CellStyle getErrorMessageCellStyle(ExcelStyleRegistry styleRegistry) {
+		return styleRegistry.getStyle(
+				ExcelStyleRegistry.StyleDef.of(HorizontalAlignment.LEFT).font(true, IndexedColors.RED.getIndex()));
+	}
+
+	/** 列的水平对齐方式 */
+	private static HorizontalAlignment getAlignment(ExcelColumnInfo columnInfo) {
 		if (columnInfo.annotation.horizontalAlignment() == ExcelColumnHorizontalAlignment.CENTER) {
-			style.setAlignment(HorizontalAlignment.CENTER);
+			return HorizontalAlignment.CENTER;
 		} else if (columnInfo.annotation.horizontalAlignment() == ExcelColumnHorizontalAlignment.LEFT) {
-			style.setAlignment(HorizontalAlignment.LEFT);
+			return HorizontalAlignment.LEFT;
 		} else if (columnInfo.annotation.horizontalAlignment() == ExcelColumnHorizontalAlignment.RIGHT) {
-			style.setAlignment(HorizontalAlignment.RIGHT);
+			return HorizontalAlignment.RIGHT;
 		}
-		style.setBorderLeft(BorderStyle.THIN);
-		style.setBorderRight(BorderStyle.THIN);
-		style.setBorderTop(BorderStyle.THIN);
-		style.setBorderBottom(BorderStyle.THIN);
-		Font font = wb.createFont();
-		font.setBold(true);
-		font.setColor(IndexedColors.RED.getIndex());
-		style.setFont(font);
-		style.setFillForegroundColor(IndexedColors.LIGHT_ORANGE.index);
-		style.setFillPattern(FillPatternType.FINE_DOTS);
-		return style;
-	}
-
-	/** 导出时显示错误信息单元格样式 */
-	private static CellStyle getErrorMessageCellStyle(Workbook wb) {
-		CellStyle style = wb.createCellStyle();
-		style.setAlignment(HorizontalAlignment.LEFT);
-		style.setBorderLeft(BorderStyle.THIN);
-		style.setBorderRight(BorderStyle.THIN);
-		style.setBorderTop(BorderStyle.THIN);
-		style.setBorderBottom(BorderStyle.THIN);
-		Font font = wb.createFont();
-		font.setBold(true);
-		font.setColor(IndexedColors.RED.getIndex());
-		style.setFont(font);
-		return style;
+		return null;
 	}
 
 	/** 获取列可选项提供者 */
-	private static ExcelColumnSelectionProvider getExcelColumnSelectionProvider(
+	static ExcelColumnSelectionProvider getExcelColumnSelectionProvider(
 			Class<? extends ExcelColumnSelectionProvider> selectionProviderClass) {
 		ExcelColumnSelectionProvider selectionProvider = selectionProviderMap.get(selectionProviderClass);
 		if (selectionProvider == null) {
@@ -519,7 +960,8 @@ public class ExcelImportExportTools {
 	}
 
 	/** 创建关联sheet页（隐藏）及相关的“名称”（Excel名称管理器中的那种） */
-	private static String createRefSheetWithNames(Workbook wb, ExcelColumnInfo columnInfo) {
+	private static String createRefSheetWithNames(Workbook wb, ExcelColumnInfo columnInfo,
+			List<ExcelColumnSelectionItem> selectionItems) {
 		String baseName = "REF_" + columnInfo.annotation.selectionProvider().getSimpleName() + "_"
 				+ columnInfo.annotation.selectionType();
 		if (wb.getName(baseName) == null) {
@@ -534,7 +976,7 @@ public class ExcelImportExportTools {
 			int rowNum = sheet.getLastRowNum() + 1;
 			Row row = sheet.createRow(rowNum);
 			int cellNum = 0;
-			for (ExcelColumnSelectionItem item : columnInfo.getSelectionItems()) {
+			for (ExcelColumnSelectionItem item : selectionItems) {
 				Cell cell = row.createCell(cellNum, CellType.STRING);
 				cell.setCellValue(item.getName());
 				cellNum++;
@@ -547,7 +989,7 @@ public class ExcelImportExportTools {
 
 			// 创建级联引用的Name
 			Map<String, List<ExcelColumnSelectionItem>> map = new LinkedHashMap<String, List<ExcelColumnSelectionItem>>();
-			for (ExcelColumnSelectionItem selectionItem : columnInfo.getSelectionItems()) {
+			for (ExcelColumnSelectionItem selectionItem : selectionItems) {
 				String refName = selectionItem.getRefName();
 				if (Utils.isNotBlank(refName)) {
 					List<ExcelColumnSelectionItem> list = map.get(refName);
@@ -589,128 +1031,495 @@ public class ExcelImportExportTools {
 		}
 	}
 
-	/** 读取单元格的值，返回是否读到非空值 */
-	private static boolean readCellValueToModel(Workbook wb, Cell cell, ExcelColumnInfo columnInfo, Object model) {
-		Class<?> fieldType = columnInfo.field.getType();
-		ExcelModelBase modelBase = new ExcelModelBase();
-		if (model instanceof ExcelModelBase) {
-			modelBase = (ExcelModelBase) model;
+	/**
+	 * 读取单元格的值，数字单元格读到数字及日期类型属性（包括基本类型）时直接取值（日期为Date），不经过格式化为字符串再解析的过程，其他返回单元格显示的字符串
+	 */
+	private static Object readCellValue(ExcelCellReader cellReader, Cell cell, ExcelColumnInfo columnInfo) {
+		if (!columnInfo.hasSelection() && columnInfo.valueType != ExcelColumnInfo.ValueType.STRING && cell != null
+				&& cell.getCellTypeEnum() == CellType.NUMERIC) {
+			Object value = cellReader.getTypedCellValue(cell, columnInfo);
+			if (value != null) {
+				return value;
+			}
+		}
+		return cellReader.getCellValueAsString(cell);
+	}
+
+	/** 将单元格的字符串值转换后设置到模型对象中，返回是否读到非空值 */
+	private static boolean readStringValueToModel(String cellValue, List<ExcelColumnInfo> columnInfos,
+			ExcelColumnInfo columnInfo, ExcelColumnSelectionIndex selectionIndex, Object model) {
+		// 模型不继承ExcelModelBase时不记录原始值及错误信息
+		ExcelModelBase modelBase = model instanceof ExcelModelBase ? (ExcelModelBase) model : null;
+		String strValue = Utils.trimToEmpty(cellValue);
+		if (modelBase != null) {
+			modelBase.setOriginalValue(columnInfo.index, columnInfos.size(), strValue);
 		}
-		String strValue = Utils.trimToEmpty(getCellValueAsString(wb, cell));
-		modelBase.setOriginalValue(columnInfo.field.getName(), strValue);
 		Object value = null;
-		if (Date.class.equals(fieldType)) {
+		if (columnInfo.valueType == ExcelColumnInfo.ValueType.STRING) {
+			value = strValue;
+		} else if (columnInfo.valueType == ExcelColumnInfo.ValueType.DATE) {
 			if (Utils.isNotBlank(strValue)) {
-				String dateFormat = columnInfo.annotation.dateFormat();
-				if (Utils.isBlank(dateFormat)) {
-					dateFormat = "yyyy-MM-dd";
-				}
 				try {
-					value = Utils.parseDate(strValue, dateFormat);
+					value = columnInfo.fromDate(Utils.parseDate(strValue, columnInfo.dateFormat));
 				} catch (ParseException e) {
-					modelBase.addFieldError(columnInfo.field.getName(),
-							columnInfo.annotation.name() + "日期格式无法解析，应该为" + dateFormat + "格式");
+					addFieldError(modelBase, columnInfo,
+							columnInfo.annotation.name() + "日期格式无法解析，应该为" + columnInfo.dateFormat + "格式");
 				}
 			}
-		} else if (Integer.class.equals(fieldType) || Integer.TYPE.equals(fieldType)) {
-			if (Utils.isNotBlank(strValue)) {
-				try {
-					value = Integer.valueOf(strValue, 10);
-				} catch (Exception e) {
-					modelBase.addFieldError(columnInfo.field.getName(), columnInfo.annotation.name() + "数字格式无法解析");
-				}
+		} else if (Utils.isNotBlank(strValue)) {
+			try {
+				value = parseNumber(strValue, columnInfo.valueType);
+			} catch (Exception e) {
+				addFieldError(modelBase, columnInfo, columnInfo.annotation.name() + "数字格式无法解析");
 			}
-		} else if (Long.class.equals(fieldType) || Long.TYPE.equals(fieldType)) {
-			if (Utils.isNotBlank(strValue)) {
-				try {
-					value = Long.valueOf(strValue, 10);
-				} catch (Exception e) {
-					modelBase.addFieldError(columnInfo.field.getName(), columnInfo.annotation.name() + "数字格式无法解析");
+		}
+		// 数字、日期解析失败时已记录错误，不再检查下拉选项
+		if (Utils.isNotBlank(strValue) && value != null) {
+			if (selectionIndex != null) {
+				String name = String.valueOf(value);
+				String realValue = selectionIndex.getValue(name);
+				if (realValue == null) {
+					addFieldError(modelBase, columnInfo, columnInfo.annotation.name() + "值不在可选范围内");
+					value = null;
+				} else if (columnInfo.refColumnIndex >= 0) {
+					// 级联下拉按上级的值查找，上级为空或有错误时不校验
+					ExcelColumnInfo refColumnInfo = columnInfos.get(columnInfo.refColumnIndex);
+					Object refValue = refColumnInfo.accessor.get(model);
+					if (refValue != null && (modelBase == null || !modelBase.hasFieldError(refColumnInfo.name))) {
+						realValue = selectionIndex.getValue(refValue.toString(), name);
+						if (realValue == null) {
+							addFieldError(modelBase, columnInfo,
+									columnInfo.annotation.name() + "与" + refColumnInfo.annotation.name() + "不匹配");
+						}
+					}
+					value = realValue;
+				} else {
+					value = realValue;
 				}
 			}
-		} else if (Float.class.equals(fieldType) || Float.TYPE.equals(fieldType)) {
-			if (Utils.isNotBlank(strValue)) {
-				try {
-					value = Float.valueOf(strValue);
-				} catch (Exception e) {
-					modelBase.addFieldError(columnInfo.field.getName(), columnInfo.annotation.name() + "数字格式无法解析");
-				}
+		}
+		if (value != null) {
+			columnInfo.accessor.set(model, value);
+		}
+		return Utils.isNotBlank(strValue);
+	}
+
+	/** 记录字段错误，模型不继承ExcelModelBase（modelBase为null）时忽略 */
+	private static void addFieldError(ExcelModelBase modelBase, ExcelColumnInfo columnInfo, String message) {
+		if (modelBase != null) {
+			modelBase.addFieldError(columnInfo.name, message);
+		}
+	}
+
+	/** 将字符串解析为对应类型的数字 */
+	private static Object parseNumber(String strValue, ExcelColumnInfo.ValueType valueType) {
+		switch (valueType) {
+		case INTEGER:
+			return Integer.valueOf(strValue, 10);
+		case LONG:
+			return Long.valueOf(strValue, 10);
+		case FLOAT:
+			return Float.valueOf(strValue);
+		case DOUBLE:
+			return Double.valueOf(strValue);
+		case BIG_DECIMAL:
+			return new BigDecimal(strValue);
+		default:
+			throw new IllegalArgumentException("不支持的数字类型" + valueType);
+		}
+	}
+
+	/**
+	 * 单sheet页导出处理，分为三步：
+	 * <ol>
+	 * <li>{@link #prepare()}：样式及表头，会修改工作簿级别的对象（样式表、批注绘图部件）</li>
+	 * <li>{@link #writeRows()}：数据行，只修改本sheet页（流式导出时写入本sheet页的临时文件），流式导出时可以在各sheet页间并行</li>
+	 * <li>{@link #finish()}：下拉框校验（可能创建REF参照sheet及名称）及列宽</li>
+	 * </ol>
+	 */
+	private static class SheetExport {
+		final Workbook wb;
+		final ExcelStyleRegistry styleRegistry;
+		final int sheetIndex;
+		final Class<?> modelClass;
+		final Sheet sheet;
+		final List<ExcelColumnInfo> columnInfoList;
+		final boolean errorRowsOnly;
+		/** 为null时不报告进度 */
+		final ExcelProgress progress;
+		Iterator<?> data;
+
+		List<ExcelColumnSelectionIndex> selectionIndexes;
+		ExcelColumnWidthTracker widthTracker;
+		CellStyle[] dataCellStyles;
+		CellStyle[] errorRowNormalCellStyles;
+		CellStyle[] errorRowErrorCellStyles;
+		CellStyle errorMessageCellStyle;
+		int rowCount;
+		/** 统计：数据行数（不含样例空行）及有错误的行数 */
+		int dataRowCount;
+		int errorRowCount;
+
+		SheetExport(Workbook wb, ExcelStyleRegistry styleRegistry, ExcelExportOptions options, int sheetIndex,
+				Class<?> modelClass, Iterator<?> data) {
+			this.wb = wb;
+			this.styleRegistry = styleRegistry;
+			this.sheetIndex = sheetIndex;
+			this.modelClass = modelClass;
+			this.sheet = wb.getSheetAt(sheetIndex);
+			this.columnInfoList = getColumnInfos(modelClass);
+			this.errorRowsOnly = options.isErrorRowsOnly();
+			this.progress = options.getProgress();
+			if (errorRowsOnly && data != null) {
+				data = new ErrorRowIterator(data);
 			}
-		} else if (Double.class.equals(fieldType) || Double.TYPE.equals(fieldType)) {
-			if (Utils.isNotBlank(strValue)) {
-				try {
-					value = Double.valueOf(strValue);
-				} catch (Exception e) {
-					modelBase.addFieldError(columnInfo.field.getName(), columnInfo.annotation.name() + "数字格式无法解析");
-				}
+			// data不能为null或空数组，如果是这种情况插入一个元素（元素可以为null）作为样例行
+			if (data == null || !data.hasNext()) {
+				data = Collections.singletonList(null).iterator();
 			}
-		} else if (BigDecimal.class.equals(fieldType)) {
-			if (Utils.isNotBlank(strValue)) {
-				try {
-					value = new BigDecimal(strValue);
-				} catch (Exception e) {
-					modelBase.addFieldError(columnInfo.field.getName(), columnInfo.annotation.name() + "数字格式无法解析");
+			this.data = data;
+			// 自动宽度的列在写出数据行时统计宽度（流式导出时数据行写出后不能再访问）
+			this.widthTracker = new ExcelColumnWidthTracker(columnInfoList, options.getAutoWidthSampleRows());
+		}
+
+		/** 样式及表头 */
+		void prepare() {
+			long start = System.nanoTime();
+			selectionIndexes = loadSelectionIndexes(columnInfoList);
+			// 样式
+			CellStyle[] headerCellStyles = new CellStyle[columnInfoList.size()];
+			dataCellStyles = new CellStyle[columnInfoList.size()];
+			errorRowNormalCellStyles = new CellStyle[columnInfoList.size()];
+			errorRowErrorCellStyles = new CellStyle[columnInfoList.size()];
+			errorMessageCellStyle = getErrorMessageCellStyle(styleRegistry);
+			int columnNum = 0;
+			for (ExcelColumnInfo columnInfo : columnInfoList) {
+				headerCellStyles[columnNum] = getHeaderCellStyle(styleRegistry, columnInfo);
+				dataCellStyles[columnNum] = getCellStyle(styleRegistry, columnInfo);
+				errorRowNormalCellStyles[columnNum] = getErrorRowNormalCellStyle(styleRegistry, columnInfo);
+				errorRowErrorCellStyles[columnNum] = getErrorRowErrorCellStyle(styleRegistry, columnInfo);
+				columnNum++;
+			}
+
+			// 表头
+			Drawing<?> drawing = sheet.createDrawingPatriarch();
+			CreationHelper creationHelper = wb.getCreationHelper();
+			Row headerRow = sheet.createRow(0);
+			columnNum = 0;
+			for (ExcelColumnInfo columnInfo : columnInfoList) {
+				Cell cell = headerRow.createCell(columnNum, CellType.STRING);
+				cell.setCellValue(columnInfo.annotation.name());
+				cell.setCellStyle(headerCellStyles[columnNum]);
+				if (Utils.isNotBlank(columnInfo.annotation.notes())) {
+					ClientAnchor anchor = creationHelper.createClientAnchor();
+					anchor.setCol1(cell.getColumnIndex());
+					anchor.setCol2(cell.getColumnIndex() + 3);
+					anchor.setRow1(cell.getRowIndex() + 1);
+					anchor.setRow2(cell.getRowIndex() + 4);
+					Comment comment = drawing.createCellComment(anchor);
+					comment.setString(creationHelper.createRichTextString(columnInfo.annotation.notes()));
+					comment.setVisible(false);
+					cell.setCellComment(comment);
 				}
+				columnNum++;
 			}
-		} else {
-			value = strValue;
+			metricsListener.phaseCompleted(ExcelMetricsPhase.EXPORT_STYLE, sheetIndex, System.nanoTime() - start);
 		}
-		if (Utils.isNotBlank(strValue)) {
-			List<ExcelColumnSelectionItem> selectionItems = columnInfo.getSelectionItems();
-			if (selectionItems != null) {
-				String realValue = null;
-				for (ExcelColumnSelectionItem selectionItem : selectionItems) {
-					if (selectionItem.getName().equals(value)) {
-						realValue = selectionItem.getValue();
+
+		/** 数据行，行数在全部写完后才能确定，下拉框的校验范围以此为准 */
+		void writeRows() throws Exception {
+			long start = System.nanoTime();
+			while (data.hasNext()) {
+				Object item = data.next();
+				rowCount++;
+				boolean hasError = item != null && item instanceof ExcelModelBase
+						&& ((ExcelModelBase) item).hasError();
+				if (item != null) {
+					dataRowCount++;
+					if (progress != null && dataRowCount % ExcelProgress.REPORT_ROWS == 0) {
+						progress.update(sheetIndex, dataRowCount);
 					}
 				}
-				if (realValue == null) {
-					modelBase.addFieldError(columnInfo.field.getName(), columnInfo.annotation.name() + "值不在可选范围内");
-					value = null;
-				} else {
-					value = realValue;
+				if (hasError) {
+					errorRowCount++;
 				}
+				boolean sampling = widthTracker.isSampling();
+				Row row = sheet.createRow(rowCount);
+				int columnNum = 0;
+				for (ExcelColumnInfo columnInfo : columnInfoList) {
+					Cell cell = null;
+					boolean hasFieldError = hasError && ((ExcelModelBase) item).hasFieldError(columnInfo.name);
+					// 有错误的字段导出导入时的原始值，没有原始值（如未保留）时导出属性值
+					String originalValue = hasFieldError ? ((ExcelModelBase) item).getOriginalValue(columnInfo.name)
+							: null;
+					if (originalValue != null) {
+						cell = row.createCell(columnNum, CellType.STRING);
+						cell.setCellStyle(errorRowErrorCellStyles[columnNum]);
+						cell.setCellValue(originalValue);
+						if (sampling) {
+							widthTracker.track(columnNum, originalValue);
+						}
+					} else {
+						Object cellValue = item == null ? null : columnInfo.accessor.get(item);
+						if (columnInfo.numeric) {
+							// 空值不能建成数字单元格，流式导出时会写出默认值0
+							cell = row.createCell(columnNum, cellValue == null ? CellType.BLANK : CellType.NUMERIC);
+						} else {
+							cell = row.createCell(columnNum, CellType.STRING);
+						}
+						if (hasFieldError) {
+							cell.setCellStyle(errorRowErrorCellStyles[columnNum]);
+						} else if (hasError) {
+							cell.setCellStyle(errorRowNormalCellStyles[columnNum]);
+						} else {
+							cell.setCellStyle(dataCellStyles[columnNum]);
+						}
+						// 设值
+						if (item != null) {
+							if (cellValue != null) {
+								if (columnInfo.valueType == ExcelColumnInfo.ValueType.DATE) {
+									cell.setCellValue(columnInfo.toDate(cellValue));
+									if (sampling) {
+										widthTracker.track(columnNum, columnInfo, cellValue);
+									}
+								} else if (cellValue instanceof Number) {
+									cell.setCellValue(((Number) cellValue).doubleValue());
+									if (sampling) {
+										widthTracker.track(columnNum, columnInfo, cellValue);
+									}
+								} else {
+									ExcelColumnSelectionIndex selectionIndex = selectionIndexes.get(columnNum);
+									if (selectionIndex != null) {
+										String name;
+										if (columnInfo.refColumnIndex >= 0) {
+											Object refValue = columnInfoList.get(columnInfo.refColumnIndex).accessor
+													.get(item);
+											name = selectionIndex.getName(refValue == null ? null : refValue.toString(),
+													cellValue.toString());
+										} else {
+											name = selectionIndex.getName(cellValue.toString());
+										}
+										if (name != null) {
+											cellValue = name;
+										}
+									}
+									cell.setCellValue(cellValue.toString());
+									if (sampling) {
+										widthTracker.track(columnNum, cellValue.toString());
+									}
+								}
+							}
+						}
+					}
+					columnNum++;
+				}
+				if (sampling) {
+					widthTracker.endRow();
+				}
+				if (hasError) {
+					ExcelModelBase modelBase = (ExcelModelBase) item;
+					Cell cell = row.createCell(columnNum, CellType.STRING);
+					cell.setCellStyle(errorMessageCellStyle);
+					String allErrorMessages = Utils.join(modelBase.getAllErrors(), ";");
+					if (errorRowsOnly && modelBase.getRowNumber() > 0) {
+						allErrorMessages = "第" + modelBase.getRowNumber() + "行：" + allErrorMessages;
+					}
+					cell.setCellValue(allErrorMessages);
+				}
+			}
+			if (progress != null) {
+				progress.update(sheetIndex, dataRowCount);
 			}
+			long nanos = System.nanoTime() - start;
+			ExcelMetricsListener listener = metricsListener;
+			listener.phaseCompleted(ExcelMetricsPhase.EXPORT_ROWS, sheetIndex, nanos);
+			listener.sheetExported(sheetIndex, modelClass, dataRowCount, (long) dataRowCount * columnInfoList.size(),
+					errorRowCount, nanos);
 		}
-		if (value != null) {
-			try {
-				columnInfo.field.set(model, value);
-			} catch (Exception e) {
-				throw new RuntimeException(e);
+
+		/** 下拉框校验及列宽 */
+		void finish() {
+			long start = System.nanoTime();
+			// 可选项
+			int columnNum = 0;
+			for (ExcelColumnInfo columnInfo : columnInfoList) {
+				ExcelColumnSelectionIndex selectionIndex = selectionIndexes.get(columnNum);
+				if (selectionIndex != null) {
+					List<ExcelColumnSelectionItem> items = selectionIndex.items;
+					if (!columnInfo.isCascade()) {
+						// 非级联下拉
+						String baseName = createRefSheetWithNames(wb, columnInfo, items);
+						DataValidationConstraint dvc = sheet.getDataValidationHelper()
+								.createFormulaListConstraint(baseName);
+						CellRangeAddressList range = new CellRangeAddressList(1, rowCount, columnNum, columnNum);
+						sheet.addValidationData(sheet.getDataValidationHelper().createValidation(dvc, range));
+					} else {
+						// 级联查询，需要创建参照sheet
+						String baseName = createRefSheetWithNames(wb, columnInfo, items);
+						if (columnInfo.refColumnIndex < 0) {
+							throw new RuntimeException(
+									"selectionRefField指定的字段" + columnInfo.annotation.selectionRefField() + "不存在");
+						}
+						String refColumnName = numberToColumnHead(columnInfo.refColumnIndex + 1);
+						String formula = "INDIRECT(CONCATENATE(\"" + baseName + "_\",$" + refColumnName + "2))";
+						DataValidationConstraint dvc = sheet.getDataValidationHelper()
+								.createFormulaListConstraint(formula);
+						CellRangeAddressList range = new CellRangeAddressList(1, rowCount, columnNum, columnNum);
+						sheet.addValidationData(sheet.getDataValidationHelper().createValidation(dvc, range));
+					}
+				}
+				columnNum++;
+			}
+
+			// 宽度设置
+			columnNum = 0;
+			for (ExcelColumnInfo columnInfo : columnInfoList) {
+				if (columnInfo.annotation.width() > 0) {
+					sheet.setColumnWidth(columnNum, columnInfo.annotation.width() * 256);
+				}
+				columnNum++;
 			}
+			widthTracker.apply(sheet);
+			// 最后一列（错误信息）
+			sheet.setColumnWidth(columnNum, 25600);
+			metricsListener.phaseCompleted(ExcelMetricsPhase.EXPORT_VALIDATIONS, sheetIndex,
+					System.nanoTime() - start);
 		}
-		return Utils.isNotBlank(strValue);
 	}
 
-	/** 获取单元格字符串值 */
-	private static String getCellValueAsString(Workbook wb, Cell cell) {
-		if (cell == null) {
-			return null;
+	/** 只返回有错误的行的迭代器 */
+	private static class ErrorRowIterator implements Iterator<Object> {
+		final Iterator<?> iterator;
+		Object next;
+
+		ErrorRowIterator(Iterator<?> iterator) {
+			this.iterator = iterator;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (next == null && iterator.hasNext()) {
+				Object item = iterator.next();
+				if (item instanceof ExcelModelBase && ((ExcelModelBase) item).hasError()) {
+					next = item;
+				}
+			}
+			return next != null;
+		}
+
+		@Override
+		public Object next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Object item = next;
+			next = null;
+			return item;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
 		}
-		FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
-		DataFormatter dataFormatter = new DataFormatter();
-		return dataFormatter.formatCellValue(cell, evaluator);
 	}
 
-	private static class ExcelColumnInfo {
-		ExcelColumn annotation;
-		Field field;
+	/** 流式导入时的sheet页处理器，只保留当前行（使用流水线时为处理中的批）的单元格值 */
+	private static class StreamingSheetHandler implements SheetContentsHandler, ExcelImportCursor.SheetHandler {
+		int sheetIndex;
+		Class<?> modelClass;
+		int columnCount;
+		ExcelRowPipeline pipeline;
+		ExcelImportLimits limits;
+		long startNanos = System.nanoTime();
 
-		boolean selectionItemsInitialized;
-		List<ExcelColumnSelectionItem> selectionItems;
+		String[] rowValues;
+		int currentRow;
+		int nextColumn;
 
-		public List<ExcelColumnSelectionItem> getSelectionItems() {
-			if (!selectionItemsInitialized) {
-				try {
-					ExcelColumnSelectionProvider selectionProvider = getExcelColumnSelectionProvider(
-							annotation.selectionProvider());
-					selectionItems = selectionProvider.selectionItems(annotation.selectionType());
-					selectionItemsInitialized = true;
-				} catch (Exception e) {
-					throw new RuntimeException(e);
+		StreamingSheetHandler(int sheetIndex, Class<?> modelClass, ExcelImportOptions options,
+				ExcelImportHandler handler) {
+			this.sheetIndex = sheetIndex;
+			this.modelClass = modelClass;
+			this.columnCount = getColumnInfos(modelClass).size();
+			this.pipeline = new ExcelRowPipeline(options, sheetIndex, modelClass, newRowMapper(modelClass),
+					handler);
+			this.limits = new ExcelImportLimits(options, sheetIndex);
+		}
+
+		@Override
+		public void startRow(int rowNum) {
+			currentRow = rowNum;
+			nextColumn = 0;
+			// 使用流水线时提交后的数组仍在处理中，提交后重新创建；空行不提交，数组清空后复用
+			if (rowValues == null) {
+				rowValues = new String[columnCount];
+			} else {
+				Arrays.fill(rowValues, null);
+			}
+		}
+
+		@Override
+		public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+			int column = cellReference == null ? nextColumn : columnIndex(cellReference);
+			nextColumn = column + 1;
+			limits.checkColumns(nextColumn, currentRow + 1);
+			if (column < rowValues.length) {
+				limits.checkCellLength(formattedValue, currentRow + 1, column);
+				rowValues[column] = formattedValue;
+			}
+		}
+
+		@Override
+		public void endRow(int rowNum) {
+			// 第一行为列头
+			if (currentRow == 0) {
+				return;
+			}
+			boolean blank = isBlankRow(rowValues);
+			if (!limits.row(currentRow + 1, blank)) {
+				throw new ExcelImportLimits.SheetEndException();
+			}
+			if (blank) {
+				return;
+			}
+			try {
+				pipeline.add(currentRow + 1, rowValues);
+				rowValues = null;
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		@Override
+		public void headerFooter(String text, boolean isHeader, String tagName) {
+		}
+
+		/** 单元格引用（如AB12）的列序号，从0开始。不使用CellReference，避免每个单元格都做正则匹配 */
+		static int columnIndex(String cellReference) {
+			int column = 0;
+			for (int i = 0; i < cellReference.length(); i++) {
+				char c = cellReference.charAt(i);
+				if (c >= 'A' && c <= 'Z') {
+					column = column * 26 + (c - 'A' + 1);
+				} else if (c != '$') {
+					break;
 				}
 			}
-			return selectionItems;
+			return column - 1;
+		}
+
+		/** sheet页解析完毕，等待所有行转换完成 */
+		@Override
+		public void finish() throws Exception {
+			pipeline.finish();
+			reportSheetImported(pipeline, sheetIndex, modelClass, startNanos);
+		}
+
+		@Override
+		public void close() {
+			pipeline.close();
 		}
 	}
 
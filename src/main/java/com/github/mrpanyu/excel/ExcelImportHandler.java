@@ -0,0 +1,16 @@
+package com.github.mrpanyu.excel;
+
+/**
+ * 流式导入时的模型对象处理接口，每解析并校验完一行数据调用一次
+ */
+public interface ExcelImportHandler {
+
+	/**
+	 * 处理一行导入数据
+	 *
+	 * @param sheetIndex sheet页序号，从0开始，与导入模型类的序号对应
+	 * @param model      转换后的模型对象（已完成解析及校验，错误信息记录在模型对象中）
+	 */
+	void handle(int sheetIndex, Object model);
+
+}
@@ -0,0 +1,13 @@
+package com.github.mrpanyu.excel;
+
+/**
+ * 导入的Excel文件超出导入选项中的限制（最大行数、列数、解压后大小、单元格长度）时抛出的异常
+ */
+@SuppressWarnings("serial")
+public class ExcelImportLimitException extends RuntimeException {
+
+	public ExcelImportLimitException(String message) {
+		super(message);
+	}
+
+}
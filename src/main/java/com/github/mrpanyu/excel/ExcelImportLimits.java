@@ -0,0 +1,171 @@
+package com.github.mrpanyu.excel;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * 导入限制的检查（{@link ExcelImportOptions#getMaxRows()}等），用于导入不受信任的上传文件
+ * <p>
+ * 解压后大小在POI打开文件前检查，按实际解压出的字节数统计（压缩包中记录的大小可以伪造），超出时立即停止解压；
+ * 行数、列数及单元格长度在读取时逐行检查，不需要读完整个sheet页。各限制小于等于0时不检查。
+ * <p>
+ * 一个实例对应一个sheet页，只在读取线程中使用。
+ */
+class ExcelImportLimits {
+
+	private final int sheetIndex;
+	private final int maxRows;
+	private final int maxColumns;
+	private final int maxCellLength;
+	private final int maxConsecutiveBlankRows;
+
+	/** 上一个读到的行号（从1开始，列头为第1行） */
+	private int lastRowNumber = 1;
+	private int blankRows;
+	/** 已读取的非空数据行数 */
+	private int dataRows;
+
+	ExcelImportLimits(ExcelImportOptions options, int sheetIndex) {
+		this.sheetIndex = sheetIndex;
+		this.maxRows = options == null ? 0 : options.getMaxRows();
+		this.maxColumns = options == null ? 0 : options.getMaxColumns();
+		this.maxCellLength = options == null ? 0 : options.getMaxCellLength();
+		this.maxConsecutiveBlankRows = options == null ? 0 : options.getMaxConsecutiveBlankRows();
+	}
+
+	/**
+	 * 读到一行，检查最大行数并统计连续空行。中间缺少的行（文件中不存在的行）按空行计算，
+	 * 最大行数按非空数据行的个数检查，与数据所在的行号无关
+	 *
+	 * @param rowNumber Excel中的行号，从1开始
+	 * @param blank     是否整行为空
+	 * @return 是否读取当前行并继续，连续空行数达到上限时返回false，当前行及之后的行不再读取
+	 */
+	boolean row(int rowNumber, boolean blank) {
+		blankRows += rowNumber - lastRowNumber - 1;
+		lastRowNumber = rowNumber;
+		if (isBlankRowsExceeded()) {
+			// 中间缺少的行已达到上限，当前行不再读取
+			return false;
+		}
+		if (blank) {
+			blankRows++;
+		} else {
+			// 只检查非空行，格式化到很多行但没有内容的文件不会因此失败
+			dataRows++;
+			if (maxRows > 0 && dataRows > maxRows) {
+				throw new ExcelImportLimitException(sheetName() + "数据行数超出上限" + maxRows);
+			}
+			blankRows = 0;
+		}
+		return !isBlankRowsExceeded();
+	}
+
+	private boolean isBlankRowsExceeded() {
+		return maxConsecutiveBlankRows > 0 && blankRows >= maxConsecutiveBlankRows;
+	}
+
+	/**
+	 * 检查列数
+	 *
+	 * @param columnCount 一行的列数（最后一个单元格的列序号+1）
+	 * @param rowNumber   Excel中的行号，从1开始
+	 */
+	void checkColumns(int columnCount, int rowNumber) {
+		if (maxColumns > 0 && columnCount > maxColumns) {
+			throw new ExcelImportLimitException(sheetName() + "第" + rowNumber + "行列数超出上限" + maxColumns);
+		}
+	}
+
+	/**
+	 * 检查单元格内容的长度
+	 *
+	 * @param value     单元格显示的值
+	 * @param rowNumber Excel中的行号，从1开始
+	 * @param column    列序号，从0开始
+	 */
+	void checkCellLength(String value, int rowNumber, int column) {
+		if (maxCellLength > 0 && value != null && value.length() > maxCellLength) {
+			throw new ExcelImportLimitException(
+					sheetName() + "第" + rowNumber + "行第" + (column + 1) + "列内容长度超出上限" + maxCellLength);
+		}
+	}
+
+	private String sheetName() {
+		return "第" + (sheetIndex + 1) + "个sheet页";
+	}
+
+	/**
+	 * 检查xlsx文件解压后的大小，需要检查时将输入流读入内存，返回可以重新读取的输入流
+	 *
+	 * @param options    导入选项，为null时不检查
+	 * @param excelInput Excel文件输入流
+	 * @return 检查后的输入流，不需要检查时返回原输入流
+	 */
+	static InputStream checkUncompressedSize(ExcelImportOptions options, InputStream excelInput)
+			throws IOException {
+		if (options == null || options.getMaxUncompressedBytes() <= 0) {
+			return excelInput;
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int len;
+		while ((len = excelInput.read(buffer)) != -1) {
+			out.write(buffer, 0, len);
+		}
+		byte[] bytes = out.toByteArray();
+		checkUncompressedSize(new ByteArrayInputStream(bytes), options.getMaxUncompressedBytes());
+		return new ByteArrayInputStream(bytes);
+	}
+
+	/**
+	 * 检查已写入临时文件的xlsx文件解压后的大小
+	 *
+	 * @param options 导入选项，为null时不检查
+	 * @param file    Excel文件
+	 */
+	static void checkUncompressedSize(ExcelImportOptions options, File file) throws IOException {
+		if (options == null || options.getMaxUncompressedBytes() <= 0) {
+			return;
+		}
+		InputStream in = new FileInputStream(file);
+		try {
+			checkUncompressedSize(in, options.getMaxUncompressedBytes());
+		} finally {
+			in.close();
+		}
+	}
+
+	/** 逐个解压压缩包中的文件并统计字节数，超出上限时立即停止 */
+	private static void checkUncompressedSize(InputStream zipInput, long maxBytes) throws IOException {
+		ZipInputStream zip = new ZipInputStream(zipInput);
+		byte[] buffer = new byte[8192];
+		long total = 0;
+		ZipEntry entry;
+		while ((entry = zip.getNextEntry()) != null) {
+			int len;
+			while ((len = zip.read(buffer)) != -1) {
+				total += len;
+				if (total > maxBytes) {
+					throw new ExcelImportLimitException(
+							"Excel文件解压后大小超出上限" + maxBytes + "字节（" + entry.getName() + "）");
+				}
+			}
+		}
+	}
+	/** 连续空行数达到上限时结束sheet页的解析 */
+	@SuppressWarnings("serial")
+	static class SheetEndException extends RuntimeException {
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+	}
+
+}
@@ -0,0 +1,196 @@
+package com.github.mrpanyu.excel;
+
+import java.io.Serializable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Excel导入选项
+ */
+@SuppressWarnings("serial")
+public class ExcelImportOptions implements Serializable {
+
+	/** 默认流水线每批行数 */
+	public static final int DEFAULT_BATCH_SIZE = 500;
+
+	/**
+	 * 是否并行导入各sheet页，各sheet页在单独的线程中以流式方式解析。普通导入（imp）设置此项时同样改用流式解析，公式单元格取文件中缓存的计算结果
+	 */
+	private boolean parallel;
+	/**
+	 * 是否使用行转换流水线：一个线程读取sheet页的单元格值，线程池按批将行转换为模型对象并校验，结果仍按行顺序排列。适用于校验规则较多、单个sheet页数据量大的导入。
+	 * 与parallel同时设置时，各sheet页已在单独的线程中导入，不再使用流水线
+	 */
+	private boolean pipeline;
+	/** 流水线及校验每批行数 */
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	/** 是否校验导入的模型对象，为false时只做格式转换（转换错误仍会记录） */
+	private boolean validation = true;
+	/** 批量校验器，未设置时使用Bean Validation校验（{@link DefaultExcelBatchValidator}） */
+	private transient ExcelBatchValidator validator;
+	/**
+	 * 是否只为有错误的行保留导入时的原始值（{@link ExcelModelBase#getOriginalValue(String)}），校验后没有错误的行清除原始值，减少大量数据导入时的内存占用。
+	 * 之后再为这些行添加字段错误并导出时，错误字段导出属性值
+	 */
+	private boolean originalValuesOnErrorOnly;
+	/**
+	 * 并行导入及流水线使用的线程池，由调用方管理（导入完成后不会关闭）。未设置时，在支持虚拟线程的JVM上使用虚拟线程，否则按CPU核数创建临时线程池，导入完成后关闭
+	 */
+	private transient ExecutorService executor;
+	/** 进度及取消句柄，为null时不报告进度 */
+	private transient ExcelProgress progress;
+	/**
+	 * 每个sheet页最多的数据行数（不含列头），超出时抛出{@link ExcelImportLimitException}。按非空行的个数统计（与数据所在的行号无关），只有格式没有内容的行不受限制。小于等于0时不限制（默认）
+	 */
+	private int maxRows;
+	/** 每行最多的列数，超出时抛出{@link ExcelImportLimitException}，小于等于0时不限制（默认） */
+	private int maxColumns;
+	/**
+	 * xlsx文件（压缩包）解压后的最大字节数，在打开文件前检查，超出时抛出{@link ExcelImportLimitException}，用于拒绝压缩炸弹及超大的共享字符串表等。
+	 * 检查时文件内容会读入内存。小于等于0时不限制（默认）
+	 */
+	private long maxUncompressedBytes;
+	/** 单元格内容的最大长度（字符数），超出时抛出{@link ExcelImportLimitException}，小于等于0时不限制（默认） */
+	private int maxCellLength;
+	/** 连续空行数达到此值时停止读取当前sheet页（之后的行忽略），小于等于0时读到最后一行（默认） */
+	private int maxConsecutiveBlankRows;
+
+	public ExcelImportOptions() {
+	}
+
+	/** 创建并行导入选项 */
+	public static ExcelImportOptions parallel() {
+		ExcelImportOptions options = new ExcelImportOptions();
+		options.setParallel(true);
+		return options;
+	}
+
+	/** 创建使用指定线程池并行导入的选项 */
+	public static ExcelImportOptions parallel(ExecutorService executor) {
+		ExcelImportOptions options = parallel();
+		options.setExecutor(executor);
+		return options;
+	}
+
+	/** 创建使用行转换流水线的选项 */
+	public static ExcelImportOptions pipeline() {
+		ExcelImportOptions options = new ExcelImportOptions();
+		options.setPipeline(true);
+		return options;
+	}
+
+	/** 创建使用指定线程池的行转换流水线选项 */
+	public static ExcelImportOptions pipeline(ExecutorService executor) {
+		ExcelImportOptions options = pipeline();
+		options.setExecutor(executor);
+		return options;
+	}
+
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * 设置是否并行导入各sheet页。并行只在流式解析时有效（整个工作簿加载后各sheet页共用同一个XML对象模型，读取单元格实际是串行的），
+	 * 因此普通导入设置此项时也改用流式解析
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	public boolean isPipeline() {
+		return pipeline;
+	}
+
+	public void setPipeline(boolean pipeline) {
+		this.pipeline = pipeline;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public boolean isValidation() {
+		return validation;
+	}
+
+	public void setValidation(boolean validation) {
+		this.validation = validation;
+	}
+
+	public ExcelBatchValidator getValidator() {
+		return validator;
+	}
+
+	public void setValidator(ExcelBatchValidator validator) {
+		this.validator = validator;
+	}
+
+	public boolean isOriginalValuesOnErrorOnly() {
+		return originalValuesOnErrorOnly;
+	}
+
+	public void setOriginalValuesOnErrorOnly(boolean originalValuesOnErrorOnly) {
+		this.originalValuesOnErrorOnly = originalValuesOnErrorOnly;
+	}
+
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	public ExcelProgress getProgress() {
+		return progress;
+	}
+
+	public void setProgress(ExcelProgress progress) {
+		this.progress = progress;
+	}
+
+	public int getMaxRows() {
+		return maxRows;
+	}
+
+	public void setMaxRows(int maxRows) {
+		this.maxRows = maxRows;
+	}
+
+	public int getMaxColumns() {
+		return maxColumns;
+	}
+
+	public void setMaxColumns(int maxColumns) {
+		this.maxColumns = maxColumns;
+	}
+
+	public long getMaxUncompressedBytes() {
+		return maxUncompressedBytes;
+	}
+
+	public void setMaxUncompressedBytes(long maxUncompressedBytes) {
+		this.maxUncompressedBytes = maxUncompressedBytes;
+	}
+
+	public int getMaxCellLength() {
+		return maxCellLength;
+	}
+
+	public void setMaxCellLength(int maxCellLength) {
+		this.maxCellLength = maxCellLength;
+	}
+
+	public int getMaxConsecutiveBlankRows() {
+		return maxConsecutiveBlankRows;
+	}
+
+	public void setMaxConsecutiveBlankRows(int maxConsecutiveBlankRows) {
+		this.maxConsecutiveBlankRows = maxConsecutiveBlankRows;
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.github.mrpanyu.excel;
+
+/**
+ * 导入导出的监控接口，通过{@link ExcelImportExportTools#setMetricsListener(ExcelMetricsListener)}设置，用于统计各阶段耗时、行数、错误数等
+ * <p>
+ * 默认实现{@link NoOpExcelMetricsListener}不做任何处理，可以继承它只实现关心的方法；{@link MeterRegistryExcelMetricsListener}将数据转换为计时器及计数器，便于对接Micrometer等监控组件。
+ * 并行导入导出时会在多个线程中调用，实现必须是线程安全的，且应尽量轻量（不要在其中做耗时的操作）。
+ */
+public interface ExcelMetricsListener {
+
+	/**
+	 * 一个阶段完成
+	 *
+	 * @param phase      阶段
+	 * @param sheetIndex sheet页序号，从0开始，工作簿级别的阶段（打开、写出）为-1
+	 * @param nanos      耗时（纳秒）
+	 */
+	void phaseCompleted(ExcelMetricsPhase phase, int sheetIndex, long nanos);
+
+	/**
+	 * 一个sheet页导入完成
+	 *
+	 * @param sheetIndex sheet页序号，从0开始
+	 * @param modelClass 导入模型类
+	 * @param rows       导入的行数（不含空行）
+	 * @param cells      读取的单元格数
+	 * @param errorRows  有错误的行数
+	 * @param nanos      耗时（纳秒），可以据此计算每秒行数
+	 */
+	void sheetImported(int sheetIndex, Class<?> modelClass, int rows, long cells, int errorRows, long nanos);
+
+	/**
+	 * 一个sheet页导出完成
+	 *
+	 * @param sheetIndex sheet页序号，从0开始
+	 * @param modelClass 导出模型类
+	 * @param rows       导出的数据行数
+	 * @param cells      写出的单元格数
+	 * @param errorRows  有错误的行数
+	 * @param nanos      写出数据行的耗时（纳秒）
+	 */
+	void sheetExported(int sheetIndex, Class<?> modelClass, int rows, long cells, int errorRows, long nanos);
+
+	/**
+	 * 从下拉选项缓存获取下拉选项（由{@link DefaultExcelColumnSelectionCache}调用）
+	 *
+	 * @param providerClass 下拉选项提供者类
+	 * @param type          可选值类型
+	 * @param hit           是否命中缓存
+	 */
+	void selectionCacheAccessed(Class<?> providerClass, String type, boolean hit);
+
+	/**
+	 * 导出文件写出完成
+	 *
+	 * @param bytes 写出的字节数
+	 */
+	void bytesWritten(long bytes);
+
+}
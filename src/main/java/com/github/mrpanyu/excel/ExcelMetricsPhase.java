@@ -0,0 +1,23 @@
+package com.github.mrpanyu.excel;
+
+/**
+ * 导入导出过程中计时的阶段
+ */
+public enum ExcelMetricsPhase {
+
+	/** 导入：打开工作簿（普通导入时解析整个文件，流式导入时读取共享字符串及样式表） */
+	IMPORT_OPEN,
+	/** 导入：解析一个sheet页（读取单元格、转换为模型对象），不含校验耗时；流水线导入时转换与校验重叠，为近似值 */
+	IMPORT_PARSE,
+	/** 导入：校验一个sheet页的模型对象，流水线导入时为各线程校验时间之和 */
+	IMPORT_VALIDATE,
+	/** 导出：准备一个sheet页的样式及表头 */
+	EXPORT_STYLE,
+	/** 导出：写出一个sheet页的数据行 */
+	EXPORT_ROWS,
+	/** 导出：设置一个sheet页的下拉框校验及列宽 */
+	EXPORT_VALIDATIONS,
+	/** 导出：将工作簿写出到输出流 */
+	EXPORT_SERIALIZE
+
+}
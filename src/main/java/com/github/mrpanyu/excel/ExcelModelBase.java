@@ -9,32 +9,45 @@ import java.util.Map;
 
 /**
  * Excel模型对象的基类，包含一个特殊的错误信息字段，如果该错误信息有值，导出的时候最后会有一个错误列显示错误信息
+ * <p>
+ * 导入大量数据时每行都有一个模型对象，错误信息在首次添加时才创建；原始值按列序号保存在数组中（列序号由模型类的预解析信息确定，各行共用），非Excel列的原始值才使用Map保存。
  */
 @SuppressWarnings("serial")
 public class ExcelModelBase implements Serializable {
 
-	/** 其他错误信息 */
-	private List<String> otherErrors = new ArrayList<String>();
-	/** 字段相关的错误信息 */
-	private Map<String, List<String>> fieldErrorMap = new LinkedHashMap<String, List<String>>();
-	/** 导入时读取的原始值 */
-	private Map<String, String> originalValueMap = new HashMap<String, String>();
+	/** 其他错误信息，没有时为null */
+	private List<String> otherErrors;
+	/** 字段相关的错误信息，没有时为null */
+	private Map<String, List<String>> fieldErrorMap;
+	/** 导入时读取的原始值，按列序号保存，没有时为null */
+	private String[] originalValues;
+	/** 非Excel列的原始值，没有时为null */
+	private Map<String, String> otherOriginalValueMap;
+	/** 导入时在Excel中的行号 */
+	private int rowNumber;
 
 	/** 获取所有错误信息 */
 	public List<String> getAllErrors() {
 		List<String> allErrors = new ArrayList<String>();
-		for (List<String> fieldErrors : fieldErrorMap.values()) {
-			allErrors.addAll(fieldErrors);
+		if (fieldErrorMap != null) {
+			for (List<String> fieldErrors : fieldErrorMap.values()) {
+				allErrors.addAll(fieldErrors);
+			}
+		}
+		if (otherErrors != null) {
+			allErrors.addAll(otherErrors);
 		}
-		allErrors.addAll(otherErrors);
 		return allErrors;
 	}
 
 	/** 增加字段相关错误 */
 	public void addFieldError(String fieldName, String error) {
+		if (fieldErrorMap == null) {
+			fieldErrorMap = new LinkedHashMap<String, List<String>>(4);
+		}
 		List<String> fieldErrors = fieldErrorMap.get(fieldName);
 		if (fieldErrors == null) {
-			fieldErrors = new ArrayList<String>();
+			fieldErrors = new ArrayList<String>(1);
 			fieldErrorMap.put(fieldName, fieldErrors);
 		}
 		fieldErrors.add(error);
@@ -42,27 +55,67 @@ public class ExcelModelBase implements Serializable {
 
 	/** 增加一条错误信息 */
 	public void addOtherError(String error) {
+		if (otherErrors == null) {
+			otherErrors = new ArrayList<String>(1);
+		}
 		this.otherErrors.add(error);
 	}
 
 	/** 某字段是否有错误 */
 	public boolean hasFieldError(String fieldName) {
-		return fieldErrorMap.containsKey(fieldName);
+		return fieldErrorMap != null && fieldErrorMap.containsKey(fieldName);
 	}
 
 	/** 是否有错误 */
 	public boolean hasError() {
-		return !this.fieldErrorMap.isEmpty() || !this.otherErrors.isEmpty();
+		return (fieldErrorMap != null && !fieldErrorMap.isEmpty()) || (otherErrors != null && !otherErrors.isEmpty());
 	}
 
 	/** 设置Excel导入时的原始值 */
 	public void setOriginalValue(String key, String value) {
-		originalValueMap.put(key, value);
+		ExcelModelDescriptor descriptor = ExcelModelDescriptor.of(getClass());
+		ExcelColumnInfo columnInfo = descriptor.getColumn(key);
+		if (columnInfo != null) {
+			setOriginalValue(columnInfo.index, descriptor.columns.size(), value);
+		} else {
+			if (otherOriginalValueMap == null) {
+				otherOriginalValueMap = new HashMap<String, String>();
+			}
+			otherOriginalValueMap.put(key, value);
+		}
 	}
 
 	/** 获取Excel导入时的原始值 */
 	public String getOriginalValue(String key) {
-		return originalValueMap.get(key);
+		ExcelColumnInfo columnInfo = ExcelModelDescriptor.of(getClass()).getColumn(key);
+		if (columnInfo != null) {
+			return originalValues == null || columnInfo.index >= originalValues.length ? null
+					: originalValues[columnInfo.index];
+		}
+		return otherOriginalValueMap == null ? null : otherOriginalValueMap.get(key);
+	}
+
+	/** 导入时在Excel中的行号（从1开始，与Excel中显示的行号一致），不是导入的对象为0 */
+	public int getRowNumber() {
+		return rowNumber;
+	}
+
+	void setRowNumber(int rowNumber) {
+		this.rowNumber = rowNumber;
+	}
+
+	/** 按列序号设置原始值，导入时使用，不需要按属性名查找列 */
+	void setOriginalValue(int columnIndex, int columnCount, String value) {
+		if (originalValues == null) {
+			originalValues = new String[columnCount];
+		}
+		originalValues[columnIndex] = value;
+	}
+
+	/** 清除所有原始值 */
+	void clearOriginalValues() {
+		originalValues = null;
+		otherOriginalValueMap = null;
 	}
 
 }
@@ -0,0 +1,198 @@
+package com.github.mrpanyu.excel;
+
+import java.beans.Introspector;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+/**
+ * Excel模型类的预解析信息（sheet页及各列），每个模型类只通过反射解析一次，之后从缓存获取
+ * <p>
+ * 缓存以模型类为弱引用键、描述信息为软引用值，模型类所在的ClassLoader卸载后缓存项可以被回收，不会造成泄漏。
+ */
+class ExcelModelDescriptor {
+
+	private static final Map<Class<?>, SoftReference<ExcelModelDescriptor>> CACHE = Collections
+			.synchronizedMap(new WeakHashMap<Class<?>, SoftReference<ExcelModelDescriptor>>());
+
+	final Class<?> modelClass;
+	/** sheet页标注信息，可能为null（导入时不要求） */
+	final ExcelSheet sheetInfo;
+	/** 所有列，按属性声明顺序 */
+	final List<ExcelColumnInfo> columns;
+	/** 导入时各列的读取顺序（列序号），级联下拉的列排在上级列之后，以便按上级的值转换及校验 */
+	final int[] readOrder;
+	private final Map<String, ExcelColumnInfo> columnMap;
+
+	private ExcelModelDescriptor(Class<?> modelClass) {
+		this.modelClass = modelClass;
+		this.sheetInfo = modelClass.getAnnotation(ExcelSheet.class);
+
+		List<Property> properties = findProperties(modelClass);
+		Map<String, Integer> indexMap = new HashMap<String, Integer>();
+		for (int i = 0; i < properties.size(); i++) {
+			indexMap.put(properties.get(i).name, i);
+		}
+
+		List<ExcelColumnInfo> columnList = new ArrayList<ExcelColumnInfo>(properties.size());
+		Map<String, ExcelColumnInfo> map = new HashMap<String, ExcelColumnInfo>();
+		for (int i = 0; i < properties.size(); i++) {
+			Property property = properties.get(i);
+			ExcelColumn annotation = property.annotation;
+			ExcelColumnSelectionProvider selectionProvider = null;
+			if (!NullExcelColumnSelectionProvider.class.equals(annotation.selectionProvider())) {
+				selectionProvider = ExcelImportExportTools
+						.getExcelColumnSelectionProvider(annotation.selectionProvider());
+			}
+			Integer refColumnIndex = indexMap.get(annotation.selectionRefField());
+			ExcelColumnInfo columnInfo = new ExcelColumnInfo(i, property.name, property.type, annotation,
+					property.accessor, selectionProvider, refColumnIndex == null ? -1 : refColumnIndex);
+			columnList.add(columnInfo);
+			map.put(columnInfo.name, columnInfo);
+		}
+		this.columns = Collections.unmodifiableList(columnList);
+		this.columnMap = map;
+		this.readOrder = new int[columnList.size()];
+		boolean[] added = new boolean[columnList.size()];
+		int count = 0;
+		for (int i = 0; i < columnList.size(); i++) {
+			count = addToReadOrder(columnList, i, added, count);
+		}
+	}
+
+	/** 将列加入读取顺序，上级列先加入，返回加入后的列数 */
+	private int addToReadOrder(List<ExcelColumnInfo> columnList, int index, boolean[] added, int count) {
+		if (added[index]) {
+			return count;
+		}
+		// 先标记，避免级联关系配置成环时无限递归
+		added[index] = true;
+		int refColumnIndex = columnList.get(index).refColumnIndex;
+		if (refColumnIndex >= 0) {
+			count = addToReadOrder(columnList, refColumnIndex, added, count);
+		}
+		readOrder[count] = index;
+		return count + 1;
+	}
+
+	/**
+	 * 查找所有标注了{@link ExcelColumn}的属性
+	 * <p>
+	 * 标注在属性上的按属性声明顺序排列；标注在get/set方法上的，如果有同名属性则排在该属性的位置，否则按属性名称排在最后（方法的声明顺序无法通过反射获得）。
+	 */
+	private static List<Property> findProperties(Class<?> modelClass) {
+		Field[] fields = modelClass.getDeclaredFields();
+		Map<String, Property> methodProperties = new TreeMap<String, Property>();
+		for (Method method : modelClass.getDeclaredMethods()) {
+			ExcelColumn annotation = method.getAnnotation(ExcelColumn.class);
+			if (annotation != null) {
+				Property property = methodProperty(modelClass, method, annotation);
+				if (methodProperties.put(property.name, property) != null) {
+					throw new IllegalArgumentException(
+							"Excel模型类" + modelClass.getName() + "的属性" + property.name + "的get/set方法重复标注了@ExcelColumn");
+				}
+			}
+		}
+
+		List<Property> properties = new ArrayList<Property>();
+		for (Field field : fields) {
+			ExcelColumn annotation = field.getAnnotation(ExcelColumn.class);
+			Property methodProperty = methodProperties.remove(field.getName());
+			if (annotation != null) {
+				// 属性上的标注优先
+				properties.add(new Property(field.getName(), field.getType(), annotation,
+						ExcelPropertyAccessor.forField(field)));
+			} else if (methodProperty != null) {
+				properties.add(methodProperty);
+			}
+		}
+		properties.addAll(methodProperties.values());
+		return properties;
+	}
+
+	/** 根据标注了{@link ExcelColumn}的get/set方法解析属性 */
+	private static Property methodProperty(Class<?> modelClass, Method method, ExcelColumn annotation) {
+		String methodName = method.getName();
+		Method getter = null;
+		Method setter = null;
+		String name;
+		Class<?> type;
+		if (methodName.startsWith("set") && methodName.length() > 3 && method.getParameterTypes().length == 1) {
+			setter = method;
+			name = Introspector.decapitalize(methodName.substring(3));
+			type = method.getParameterTypes()[0];
+			getter = findMethod(modelClass, "get" + methodName.substring(3));
+			if (getter == null && (Boolean.TYPE.equals(type) || Boolean.class.equals(type))) {
+				getter = findMethod(modelClass, "is" + methodName.substring(3));
+			}
+		} else if (methodName.startsWith("get") && methodName.length() > 3
+				&& method.getParameterTypes().length == 0) {
+			getter = method;
+			name = Introspector.decapitalize(methodName.substring(3));
+			type = method.getReturnType();
+			setter = findMethod(modelClass, "set" + methodName.substring(3), type);
+		} else if (methodName.startsWith("is") && methodName.length() > 2 && method.getParameterTypes().length == 0) {
+			getter = method;
+			name = Introspector.decapitalize(methodName.substring(2));
+			type = method.getReturnType();
+			setter = findMethod(modelClass, "set" + methodName.substring(2), type);
+		} else {
+			throw new IllegalArgumentException(
+					"Excel模型类" + modelClass.getName() + "的方法" + methodName + "不是get/set方法，不能标注@ExcelColumn");
+		}
+		return new Property(name, type, annotation, ExcelPropertyAccessor.forMethods(name, getter, setter));
+	}
+
+	private static Method findMethod(Class<?> modelClass, String name, Class<?>... parameterTypes) {
+		try {
+			return modelClass.getDeclaredMethod(name, parameterTypes);
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	/** 获取模型类的描述信息 */
+	static ExcelModelDescriptor of(Class<?> modelClass) {
+		SoftReference<ExcelModelDescriptor> ref = CACHE.get(modelClass);
+		ExcelModelDescriptor descriptor = ref == null ? null : ref.get();
+		if (descriptor == null) {
+			// 并发时可能重复解析，结果相同，不影响正确性
+			descriptor = new ExcelModelDescriptor(modelClass);
+			CACHE.put(modelClass, new SoftReference<ExcelModelDescriptor>(descriptor));
+		}
+		return descriptor;
+	}
+
+	/** 清空缓存，一般只在热部署等场景需要 */
+	static void clearCache() {
+		CACHE.clear();
+	}
+
+	/** 根据属性名称获取列，不存在时返回null */
+	ExcelColumnInfo getColumn(String fieldName) {
+		return columnMap.get(fieldName);
+	}
+
+	/** 解析过程中的属性信息 */
+	private static class Property {
+		final String name;
+		final Class<?> type;
+		final ExcelColumn annotation;
+		final ExcelPropertyAccessor accessor;
+
+		Property(String name, Class<?> type, ExcelColumn annotation, ExcelPropertyAccessor accessor) {
+			this.name = name;
+			this.type = type;
+			this.annotation = annotation;
+			this.accessor = accessor;
+		}
+	}
+
+}
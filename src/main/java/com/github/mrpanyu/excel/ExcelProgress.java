@@ -0,0 +1,74 @@
+package com.github.mrpanyu.excel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 导入导出的进度及取消句柄，通过{@link ExcelImportOptions#setProgress(ExcelProgress)}、{@link ExcelExportOptions#setProgress(ExcelProgress)}设置
+ * <p>
+ * 导入时每处理完一批行（{@link ExcelImportOptions#getBatchSize()}），导出时每写出{@link #REPORT_ROWS}行更新一次各sheet页已处理的行数，并检查是否已取消。
+ * 取消后导入导出在下一次检查时抛出{@link ExcelCancelledException}，并释放临时文件等资源。取消可以在其他线程中进行（如用户关闭页面时）。
+ * <p>
+ * 一个句柄只用于一次导入导出。并行导入导出时进度会在多个线程中更新。
+ */
+public class ExcelProgress {
+
+	/** 导出时每写出多少行更新一次进度 */
+	public static final int REPORT_ROWS = 500;
+
+	private volatile boolean cancelled;
+	private final Map<Integer, Integer> processedRows = new ConcurrentHashMap<Integer, Integer>();
+
+	/** 取消导入导出 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * 获取sheet页已处理的行数（导入时为已转换的行数，不含空行；导出时为已写出的数据行数）
+	 *
+	 * @param sheetIndex sheet页序号，从0开始
+	 * @return 已处理的行数
+	 */
+	public int getProcessedRows(int sheetIndex) {
+		Integer rows = processedRows.get(sheetIndex);
+		return rows == null ? 0 : rows;
+	}
+
+	/** 各sheet页已处理的行数之和 */
+	public int getTotalProcessedRows() {
+		int total = 0;
+		for (Integer rows : processedRows.values()) {
+			total += rows;
+		}
+		return total;
+	}
+
+	/**
+	 * 进度更新时调用，子类可以覆盖（如推送给前端），并行导入导出时会在多个线程中调用
+	 *
+	 * @param sheetIndex    sheet页序号，从0开始
+	 * @param processedRows sheet页已处理的行数
+	 */
+	protected void onProgress(int sheetIndex, int processedRows) {
+	}
+
+	/** 更新sheet页已处理的行数，已取消时抛出异常 */
+	void update(int sheetIndex, int rows) {
+		processedRows.put(sheetIndex, rows);
+		onProgress(sheetIndex, rows);
+		checkCancelled();
+	}
+
+	/** 已取消时抛出异常 */
+	void checkCancelled() {
+		if (cancelled) {
+			throw new ExcelCancelledException("导入导出已取消");
+		}
+	}
+
+}
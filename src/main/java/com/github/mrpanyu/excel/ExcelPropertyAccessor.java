@@ -0,0 +1,137 @@
+package com.github.mrpanyu.excel;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * 模型属性的读写器，在模型描述信息中解析一次，导入导出时按行复用
+ * <p>
+ * {@link ExcelColumn}标注在属性上时直接读写属性，标注在get/set方法上时通过get/set方法读写。
+ */
+abstract class ExcelPropertyAccessor {
+
+	/** 读取属性值 */
+	abstract Object get(Object model);
+
+	/** 设置属性值，值的类型需要与属性类型一致（基本类型传对应的包装类型） */
+	abstract void set(Object model, Object value);
+
+	/** 直接读写属性的读写器 */
+	static ExcelPropertyAccessor forField(Field field) {
+		field.setAccessible(true);
+		if (field.getType().isPrimitive()) {
+			return new PrimitiveFieldAccessor(field);
+		}
+		return new FieldAccessor(field);
+	}
+
+	/** 通过get/set方法读写的读写器，其中一个方法可以为null（只能导出或只能导入） */
+	static ExcelPropertyAccessor forMethods(String propertyName, Method getter, Method setter) {
+		if (getter != null) {
+			getter.setAccessible(true);
+		}
+		if (setter != null) {
+			setter.setAccessible(true);
+		}
+		return new MethodAccessor(propertyName, getter, setter);
+	}
+
+	private static class FieldAccessor extends ExcelPropertyAccessor {
+		final Field field;
+
+		FieldAccessor(Field field) {
+			this.field = field;
+		}
+
+		@Override
+		Object get(Object model) {
+			try {
+				return field.get(model);
+			} catch (IllegalAccessException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		@Override
+		void set(Object model, Object value) {
+			try {
+				field.set(model, value);
+			} catch (IllegalAccessException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+	/** 基本类型属性，写入时使用对应的setInt等方法，省去Field.set中的拆箱类型判断 */
+	private static class PrimitiveFieldAccessor extends FieldAccessor {
+		final Class<?> type;
+
+		PrimitiveFieldAccessor(Field field) {
+			super(field);
+			this.type = field.getType();
+		}
+
+		@Override
+		void set(Object model, Object value) {
+			try {
+				if (Integer.TYPE.equals(type)) {
+					field.setInt(model, ((Number) value).intValue());
+				} else if (Long.TYPE.equals(type)) {
+					field.setLong(model, ((Number) value).longValue());
+				} else if (Double.TYPE.equals(type)) {
+					field.setDouble(model, ((Number) value).doubleValue());
+				} else if (Float.TYPE.equals(type)) {
+					field.setFloat(model, ((Number) value).floatValue());
+				} else {
+					field.set(model, value);
+				}
+			} catch (IllegalAccessException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+	private static class MethodAccessor extends ExcelPropertyAccessor {
+		final String propertyName;
+		final Method getter;
+		final Method setter;
+
+		MethodAccessor(String propertyName, Method getter, Method setter) {
+			this.propertyName = propertyName;
+			this.getter = getter;
+			this.setter = setter;
+		}
+
+		@Override
+		Object get(Object model) {
+			if (getter == null) {
+				throw new IllegalStateException("属性" + propertyName + "没有get方法，不能导出");
+			}
+			return invoke(getter, model);
+		}
+
+		@Override
+		void set(Object model, Object value) {
+			if (setter == null) {
+				throw new IllegalStateException("属性" + propertyName + "没有set方法，不能导入");
+			}
+			invoke(setter, model, value);
+		}
+
+		private static Object invoke(Method method, Object model, Object... args) {
+			try {
+				return method.invoke(model, args);
+			} catch (InvocationTargetException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				throw new RuntimeException(cause);
+			} catch (IllegalAccessException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,210 @@
+package com.github.mrpanyu.excel;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个sheet页的行转换流水线：读取线程按顺序提交每行的单元格值，按批转换为模型对象并校验后按行顺序交给处理器
+ * <p>
+ * 启用流水线时（{@link ExcelImportOptions#isPipeline()}），各批提交到线程池转换及校验。工作簿对象及SAX解析都不是线程安全的，只能由读取线程访问；
+ * 转换（数字、日期解析，下拉选项翻译）及Bean Validation校验只与本行有关，可以并行，校验规则较多时速度接近随线程数线性提升。
+ * 处理中的批数有上限，转换慢于读取时读取线程等待，内存占用与批大小有关，与总行数无关。处理器始终在读取线程中按行顺序调用。
+ * <p>
+ * 未启用流水线时在读取线程中按批转换及校验；未指定导入选项时逐行处理。指定了进度句柄时，每批交给处理器后更新进度，提交每批前检查是否已取消。
+ */
+class ExcelRowPipeline {
+
+	private static final ExcelBatchValidator DEFAULT_VALIDATOR = new DefaultExcelBatchValidator();
+
+	/** 行转换器，将一行的单元格值转换为模型对象（不校验），整行为空时返回null */
+	interface RowMapper {
+		Object map(int rowNumber, Object[] rowValues) throws Exception;
+	}
+
+	private final int sheetIndex;
+	private final Class<?> modelClass;
+	private final RowMapper mapper;
+	private final ExcelImportHandler handler;
+	/** 为null时不校验 */
+	private final ExcelBatchValidator validator;
+	private final int batchSize;
+	private final boolean originalValuesOnErrorOnly;
+	/** 为null时不报告进度 */
+	private final ExcelProgress progress;
+
+	private ExecutorService executor;
+	private ExecutorService ownExecutor;
+	private int maxPendingBatches;
+	private List<RawRow> batch;
+	private final LinkedList<Future<List<Object>>> pendingBatches = new LinkedList<Future<List<Object>>>();
+
+	/** 统计：读取的单元格数、转换后的行数、有错误的行数、校验耗时（各批耗时之和） */
+	private long cellCount;
+	private int rowCount;
+	private int errorRowCount;
+	private final AtomicLong validateNanos = new AtomicLong();
+
+	ExcelRowPipeline(ExcelImportOptions options, int sheetIndex, Class<?> modelClass, RowMapper mapper,
+			ExcelImportHandler handler) {
+		this.sheetIndex = sheetIndex;
+		this.modelClass = modelClass;
+		this.mapper = mapper;
+		this.handler = handler;
+		if (options == null) {
+			validator = ExcelModelBase.class.isAssignableFrom(modelClass) ? DEFAULT_VALIDATOR : null;
+			batchSize = 1;
+			originalValuesOnErrorOnly = false;
+			progress = null;
+		} else {
+			ExcelBatchValidator optionValidator = options.getValidator() == null ? DEFAULT_VALIDATOR
+					: options.getValidator();
+			validator = options.isValidation() && ExcelModelBase.class.isAssignableFrom(modelClass)
+					? optionValidator
+					: null;
+			batchSize = Math.max(1, options.getBatchSize());
+			originalValuesOnErrorOnly = options.isOriginalValuesOnErrorOnly();
+			progress = options.getProgress();
+			// 并行导入各sheet页时，每个sheet页已在单独的线程中导入，不再使用流水线（避免sheet页任务占满线程池后等待行转换任务）
+			if (options.isPipeline() && !options.isParallel()) {
+				int processors = Runtime.getRuntime().availableProcessors();
+				executor = options.getExecutor();
+				if (executor == null) {
+					ownExecutor = executor = ParallelTasks.newDefaultExecutor(processors);
+				}
+				maxPendingBatches = processors * 2;
+			}
+		}
+		batch = new ArrayList<RawRow>(batchSize);
+	}
+
+	/**
+	 * 提交一行的单元格值，数组提交后不能再修改
+	 *
+	 * @param rowNumber Excel中的行号，从1开始
+	 * @param rowValues 单元格值
+	 */
+	void add(int rowNumber, Object[] rowValues) throws Exception {
+		batch.add(new RawRow(rowNumber, rowValues));
+		cellCount += rowValues.length;
+		if (batch.size() >= batchSize) {
+			submitBatch();
+		}
+	}
+
+	/** 所有行提交完毕，等待全部转换完成 */
+	void finish() throws Exception {
+		if (!batch.isEmpty()) {
+			submitBatch();
+		}
+		while (!pendingBatches.isEmpty()) {
+			handleModels(ParallelTasks.getResult(pendingBatches.removeFirst()));
+		}
+	}
+
+	/** 释放资源，出错时取消未完成的批 */
+	void close() {
+		for (Future<List<Object>> future : pendingBatches) {
+			future.cancel(true);
+		}
+		pendingBatches.clear();
+		if (ownExecutor != null) {
+			ownExecutor.shutdownNow();
+			ownExecutor = null;
+		}
+	}
+
+	private void submitBatch() throws Exception {
+		if (progress != null) {
+			progress.checkCancelled();
+		}
+		final List<RawRow> rows = batch;
+		batch = new ArrayList<RawRow>(batchSize);
+		if (executor == null) {
+			handleModels(mapBatch(rows));
+			return;
+		}
+		pendingBatches.add(executor.submit(new Callable<List<Object>>() {
+			@Override
+			public List<Object> call() throws Exception {
+				return mapBatch(rows);
+			}
+		}));
+		// 处理中的批数超出上限时等待最早的批，已完成的批及时交给处理器
+		while (pendingBatches.size() > maxPendingBatches
+				|| (!pendingBatches.isEmpty() && pendingBatches.getFirst().isDone())) {
+			handleModels(ParallelTasks.getResult(pendingBatches.removeFirst()));
+		}
+	}
+
+	/** 转换并校验一批行，按选项清除没有错误的行的原始值 */
+	@SuppressWarnings("unchecked")
+	private List<Object> mapBatch(List<RawRow> rows) throws Exception {
+		List<Object> models = new ArrayList<Object>(rows.size());
+		for (RawRow row : rows) {
+			Object model = mapper.map(row.rowNumber, row.values);
+			if (model != null) {
+				models.add(model);
+			}
+		}
+		if (validator != null && !models.isEmpty()) {
+			long start = System.nanoTime();
+			validator.validate(modelClass, (List<ExcelModelBase>) (List<?>) models);
+			validateNanos.addAndGet(System.nanoTime() - start);
+		}
+		if (originalValuesOnErrorOnly) {
+			for (Object model : models) {
+				if (model instanceof ExcelModelBase && !((ExcelModelBase) model).hasError()) {
+					((ExcelModelBase) model).clearOriginalValues();
+				}
+			}
+		}
+		return models;
+	}
+
+	private void handleModels(List<Object> models) {
+		for (Object model : models) {
+			rowCount++;
+			if (model instanceof ExcelModelBase && ((ExcelModelBase) model).hasError()) {
+				errorRowCount++;
+			}
+			handler.handle(sheetIndex, model);
+		}
+		if (progress != null) {
+			progress.update(sheetIndex, rowCount);
+		}
+	}
+
+	long getCellCount() {
+		return cellCount;
+	}
+
+	int getRowCount() {
+		return rowCount;
+	}
+
+	int getErrorRowCount() {
+		return errorRowCount;
+	}
+
+	/** 校验耗时（纳秒），使用流水线时为各线程耗时之和 */
+	long getValidateNanos() {
+		return validateNanos.get();
+	}
+
+	/** 读取的一行 */
+	private static class RawRow {
+		final int rowNumber;
+		final Object[] values;
+
+		RawRow(int rowNumber, Object[] values) {
+			this.rowNumber = rowNumber;
+			this.values = values;
+		}
+	}
+
+}
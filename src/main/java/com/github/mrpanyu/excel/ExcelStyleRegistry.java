@@ -0,0 +1,158 @@
+package com.github.mrpanyu.excel;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.Workbook;
+
+/**
+ * 工作簿内的样式登记表，相同定义的样式及字体只创建一次，在各列及各sheet页之间共用
+ * <p>
+ * Excel文件中的样式数量有上限（约64000个），每列每sheet页都新建样式时，列多或sheet页多的导出文件会很大甚至超出上限。
+ */
+class ExcelStyleRegistry {
+
+	private final Workbook wb;
+	private DataFormat dataFormat;
+	private final Map<String, Short> dataFormats = new HashMap<String, Short>();
+	private final Map<StyleDef, Font> fonts = new HashMap<StyleDef, Font>();
+	private final Map<StyleDef, CellStyle> styles = new HashMap<StyleDef, CellStyle>();
+
+	ExcelStyleRegistry(Workbook wb) {
+		this.wb = wb;
+	}
+
+	/** 获取样式，所有样式都带细边框 */
+	CellStyle getStyle(StyleDef def) {
+		CellStyle style = styles.get(def);
+		if (style == null) {
+			style = wb.createCellStyle();
+			if (def.alignment != null) {
+				style.setAlignment(def.alignment);
+			}
+			style.setBorderLeft(BorderStyle.THIN);
+			style.setBorderRight(BorderStyle.THIN);
+			style.setBorderTop(BorderStyle.THIN);
+			style.setBorderBottom(BorderStyle.THIN);
+			if (def.fillPattern != null) {
+				style.setFillForegroundColor(def.fillColor);
+				style.setFillPattern(def.fillPattern);
+			}
+			if (def.bold || def.fontColor >= 0) {
+				style.setFont(getFont(def));
+			}
+			if (def.dataFormat != null) {
+				style.setDataFormat(getDataFormat(def.dataFormat));
+			}
+			styles.put(def, style);
+		}
+		return style;
+	}
+
+	/** 已创建的样式数 */
+	int getStyleCount() {
+		return styles.size();
+	}
+
+	private Font getFont(StyleDef def) {
+		// 字体只与粗体及颜色有关
+		StyleDef fontDef = StyleDef.of(null).font(def.bold, def.fontColor);
+		Font font = fonts.get(fontDef);
+		if (font == null) {
+			font = wb.createFont();
+			font.setBold(def.bold);
+			if (def.fontColor >= 0) {
+				font.setColor(def.fontColor);
+			}
+			fonts.put(fontDef, font);
+		}
+		return font;
+	}
+
+	private short getDataFormat(String format) {
+		Short index = dataFormats.get(format);
+		if (index == null) {
+			int builtinFormat = BuiltinFormats.getBuiltinFormat(format);
+			if (builtinFormat >= 0) {
+				index = (short) builtinFormat;
+			} else {
+				// 自定义格式
+				if (dataFormat == null) {
+					dataFormat = wb.createDataFormat();
+				}
+				index = dataFormat.getFormat(format);
+			}
+			dataFormats.put(format, index);
+		}
+		return index;
+	}
+
+	/** 样式定义，不可变，用作样式登记表的键 */
+	static final class StyleDef {
+		final HorizontalAlignment alignment;
+		final short fillColor;
+		final FillPatternType fillPattern;
+		final boolean bold;
+		final short fontColor;
+		final String dataFormat;
+
+		private StyleDef(HorizontalAlignment alignment, short fillColor, FillPatternType fillPattern, boolean bold,
+				short fontColor, String dataFormat) {
+			this.alignment = alignment;
+			this.fillColor = fillColor;
+			this.fillPattern = fillPattern;
+			this.bold = bold;
+			this.fontColor = fontColor;
+			this.dataFormat = dataFormat;
+		}
+
+		/** 指定水平对齐方式的样式定义，alignment为null时不设置 */
+		static StyleDef of(HorizontalAlignment alignment) {
+			return new StyleDef(alignment, (short) -1, null, false, (short) -1, null);
+		}
+
+		StyleDef fill(short color, FillPatternType pattern) {
+			return new StyleDef(alignment, color, pattern, bold, fontColor, dataFormat);
+		}
+
+		/** 字体，color小于0时为默认颜色 */
+		StyleDef font(boolean bold, short color) {
+			return new StyleDef(alignment, fillColor, fillPattern, bold, color, dataFormat);
+		}
+
+		/** 数据格式，内置格式或自定义格式字符串 */
+		StyleDef dataFormat(String format) {
+			return new StyleDef(alignment, fillColor, fillPattern, bold, fontColor, format);
+		}
+
+		@Override
+		public int hashCode() {
+			int result = alignment == null ? 0 : alignment.hashCode();
+			result = 31 * result + fillColor;
+			result = 31 * result + (fillPattern == null ? 0 : fillPattern.hashCode());
+			result = 31 * result + (bold ? 1 : 0);
+			result = 31 * result + fontColor;
+			result = 31 * result + (dataFormat == null ? 0 : dataFormat.hashCode());
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof StyleDef)) {
+				return false;
+			}
+			StyleDef other = (StyleDef) obj;
+			return alignment == other.alignment && fillColor == other.fillColor && fillPattern == other.fillPattern
+					&& bold == other.bold && fontColor == other.fontColor
+					&& Utils.equals(dataFormat, other.dataFormat);
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.github.mrpanyu.excel;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 导出时包装调用方提供的输出流
+ * <p>
+ * 关闭时只刷新不关闭被包装的输出流（POI写出完成后会关闭输出流），指定了分块大小时每写满一块就刷新一次，便于Servlet响应尽早开始分块传输。
+ */
+class ExportOutputStream extends FilterOutputStream {
+
+	private byte[] chunk;
+	private int chunkLength;
+	private long bytesWritten;
+	private boolean closed;
+
+	/**
+	 * @param out       被包装的输出流
+	 * @param chunkSize 分块大小（字节），小于等于0时不分块
+	 */
+	ExportOutputStream(OutputStream out, int chunkSize) {
+		super(out);
+		if (chunkSize > 0) {
+			this.chunk = new byte[chunkSize];
+		}
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		if (chunk == null) {
+			out.write(b);
+		} else {
+			if (chunkLength == chunk.length) {
+				flushChunk();
+			}
+			chunk[chunkLength++] = (byte) b;
+		}
+		bytesWritten++;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (chunk == null) {
+			out.write(b, off, len);
+		} else {
+			int remaining = len;
+			while (remaining > 0) {
+				if (chunkLength == chunk.length) {
+					flushChunk();
+				}
+				int n = Math.min(remaining, chunk.length - chunkLength);
+				System.arraycopy(b, off + len - remaining, chunk, chunkLength, n);
+				chunkLength += n;
+				remaining -= n;
+			}
+		}
+		bytesWritten += len;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (chunk != null && chunkLength > 0) {
+			out.write(chunk, 0, chunkLength);
+			chunkLength = 0;
+		}
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!closed) {
+			closed = true;
+			flush();
+		}
+	}
+
+	/** 已写出的字节数 */
+	long getBytesWritten() {
+		return bytesWritten;
+	}
+
+	private void flushChunk() throws IOException {
+		out.write(chunk, 0, chunkLength);
+		out.flush();
+		chunkLength = 0;
+	}
+
+}
@@ -0,0 +1,121 @@
+package com.github.mrpanyu.excel;
+
+import java.lang.reflect.Method;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * java.time日期类型（LocalDate、LocalDateTime、Instant）与Date之间的转换
+ * <p>
+ * 工具本身兼容Java 6，不能直接引用java.time中的类，因此通过反射调用，所需方法在类加载时查找一次。运行在Java 8以下时这些类不存在，模型类中也不会有这些类型的属性。
+ */
+class JavaTimeTypes {
+
+	private static final Class<?> LOCAL_DATE = findClass("java.time.LocalDate");
+	private static final Class<?> LOCAL_DATE_TIME = findClass("java.time.LocalDateTime");
+	private static final Class<?> INSTANT = findClass("java.time.Instant");
+
+	private static final Method LOCAL_DATE_OF = findMethod(LOCAL_DATE, "of", Integer.TYPE, Integer.TYPE,
+			Integer.TYPE);
+	private static final Method LOCAL_DATE_TIME_OF = findMethod(LOCAL_DATE_TIME, "of", Integer.TYPE, Integer.TYPE,
+			Integer.TYPE, Integer.TYPE, Integer.TYPE, Integer.TYPE, Integer.TYPE);
+	private static final Method INSTANT_OF_EPOCH_MILLI = findMethod(INSTANT, "ofEpochMilli", Long.TYPE);
+	private static final Method INSTANT_TO_EPOCH_MILLI = findMethod(INSTANT, "toEpochMilli");
+	private static final Method GET_YEAR = findMethod(LOCAL_DATE, "getYear");
+	private static final Method GET_MONTH_VALUE = findMethod(LOCAL_DATE, "getMonthValue");
+	private static final Method GET_DAY_OF_MONTH = findMethod(LOCAL_DATE, "getDayOfMonth");
+	private static final Method TO_LOCAL_DATE = findMethod(LOCAL_DATE_TIME, "toLocalDate");
+	private static final Method GET_HOUR = findMethod(LOCAL_DATE_TIME, "getHour");
+	private static final Method GET_MINUTE = findMethod(LOCAL_DATE_TIME, "getMinute");
+	private static final Method GET_SECOND = findMethod(LOCAL_DATE_TIME, "getSecond");
+	private static final Method GET_NANO = findMethod(LOCAL_DATE_TIME, "getNano");
+
+	/** 是否为支持的java.time日期类型 */
+	static boolean isJavaTimeType(Class<?> type) {
+		return type != null && (type == LOCAL_DATE || type == LOCAL_DATE_TIME || type == INSTANT);
+	}
+
+	/** 是否为带时间的java.time日期类型（LocalDateTime、Instant） */
+	static boolean hasTime(Class<?> type) {
+		return type != null && (type == LOCAL_DATE_TIME || type == INSTANT);
+	}
+
+	/** 将Date（按系统默认时区）转换为指定的java.time日期类型 */
+	static Object fromDate(Date date, Class<?> type) {
+		if (type == INSTANT) {
+			return invoke(INSTANT_OF_EPOCH_MILLI, null, date.getTime());
+		}
+		Calendar cal = Calendar.getInstance();
+		cal.setTime(date);
+		int year = cal.get(Calendar.YEAR);
+		int month = cal.get(Calendar.MONTH) + 1;
+		int day = cal.get(Calendar.DAY_OF_MONTH);
+		if (type == LOCAL_DATE) {
+			return invoke(LOCAL_DATE_OF, null, year, month, day);
+		} else if (type == LOCAL_DATE_TIME) {
+			return invoke(LOCAL_DATE_TIME_OF, null, year, month, day, cal.get(Calendar.HOUR_OF_DAY),
+					cal.get(Calendar.MINUTE), cal.get(Calendar.SECOND), cal.get(Calendar.MILLISECOND) * 1000000);
+		}
+		throw new IllegalArgumentException("不支持的日期类型" + type);
+	}
+
+	/** 将java.time日期类型的值（按系统默认时区）转换为Date */
+	static Date toDate(Object value) {
+		Class<?> type = value.getClass();
+		if (type == INSTANT) {
+			return new Date((Long) invoke(INSTANT_TO_EPOCH_MILLI, value));
+		}
+		Object localDate;
+		if (type == LOCAL_DATE) {
+			localDate = value;
+		} else if (type == LOCAL_DATE_TIME) {
+			localDate = invoke(TO_LOCAL_DATE, value);
+		} else {
+			throw new IllegalArgumentException("不支持的日期类型" + type);
+		}
+		Calendar cal = Calendar.getInstance();
+		cal.clear();
+		cal.set((Integer) invoke(GET_YEAR, localDate), (Integer) invoke(GET_MONTH_VALUE, localDate) - 1,
+				(Integer) invoke(GET_DAY_OF_MONTH, localDate));
+		if (type == LOCAL_DATE_TIME) {
+			cal.set(Calendar.HOUR_OF_DAY, (Integer) invoke(GET_HOUR, value));
+			cal.set(Calendar.MINUTE, (Integer) invoke(GET_MINUTE, value));
+			cal.set(Calendar.SECOND, (Integer) invoke(GET_SECOND, value));
+			cal.set(Calendar.MILLISECOND, (Integer) invoke(GET_NANO, value) / 1000000);
+		}
+		return cal.getTime();
+	}
+
+	private static Object invoke(Method method, Object target, Object... args) {
+		try {
+			return method.invoke(target, args);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static Class<?> findClass(String className) {
+		try {
+			return Class.forName(className);
+		} catch (ClassNotFoundException e) {
+			return null;
+		}
+	}
+
+	private static Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+		if (type == null) {
+			return null;
+		}
+		try {
+			return type.getMethod(name, parameterTypes);
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	private JavaTimeTypes() {
+	}
+
+}
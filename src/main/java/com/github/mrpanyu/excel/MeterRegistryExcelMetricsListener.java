@@ -0,0 +1,90 @@
+package com.github.mrpanyu.excel;
+
+import java.util.Locale;
+
+/**
+ * 将监控数据转换为计时器及计数器的适配器，记录到{@link Registry}中（如桥接到Micrometer的MeterRegistry）
+ * <p>
+ * 记录的指标如下（标签以键值对形式给出）：
+ * <ul>
+ * <li>excel.phase（计时器，标签phase）：各阶段耗时</li>
+ * <li>excel.import.sheet、excel.export.sheet（计时器，标签model）：每个sheet页导入、导出的耗时</li>
+ * <li>excel.import.rows、excel.import.cells、excel.import.errors（计数器，标签model）：导入的行数、单元格数、错误行数，每秒行数可以由监控系统按计数器的增长率计算</li>
+ * <li>excel.export.rows、excel.export.cells、excel.export.errors（计数器，标签model）：导出的行数、单元格数、错误行数</li>
+ * <li>excel.selection.cache（计数器，标签result为hit或miss）：下拉选项缓存的命中情况</li>
+ * <li>excel.export.bytes（计数器）：导出写出的字节数</li>
+ * </ul>
+ */
+public class MeterRegistryExcelMetricsListener implements ExcelMetricsListener {
+
+	/**
+	 * 指标登记接口，不依赖具体的监控组件。对接Micrometer时，timer调用{@code registry.timer(name, tags).record(nanos, TimeUnit.NANOSECONDS)}，
+	 * counter调用{@code registry.counter(name, tags).increment(amount)}即可
+	 */
+	public interface Registry {
+
+		/**
+		 * 记录一次计时
+		 *
+		 * @param name  指标名
+		 * @param nanos 耗时（纳秒）
+		 * @param tags  标签，按键、值交替排列
+		 */
+		void timer(String name, long nanos, String... tags);
+
+		/**
+		 * 增加计数
+		 *
+		 * @param name   指标名
+		 * @param amount 增加的数量
+		 * @param tags   标签，按键、值交替排列
+		 */
+		void counter(String name, long amount, String... tags);
+
+	}
+
+	private final Registry registry;
+
+	public MeterRegistryExcelMetricsListener(Registry registry) {
+		if (registry == null) {
+			throw new IllegalArgumentException("registry不能为null");
+		}
+		this.registry = registry;
+	}
+
+	@Override
+	public void phaseCompleted(ExcelMetricsPhase phase, int sheetIndex, long nanos) {
+		registry.timer("excel.phase", nanos, "phase", phase.name().toLowerCase(Locale.ENGLISH));
+	}
+
+	@Override
+	public void sheetImported(int sheetIndex, Class<?> modelClass, int rows, long cells, int errorRows,
+			long nanos) {
+		String model = modelClass.getSimpleName();
+		registry.timer("excel.import.sheet", nanos, "model", model);
+		registry.counter("excel.import.rows", rows, "model", model);
+		registry.counter("excel.import.cells", cells, "model", model);
+		registry.counter("excel.import.errors", errorRows, "model", model);
+	}
+
+	@Override
+	public void sheetExported(int sheetIndex, Class<?> modelClass, int rows, long cells, int errorRows,
+			long nanos) {
+		String model = modelClass.getSimpleName();
+		registry.timer("excel.export.sheet", nanos, "model", model);
+		registry.counter("excel.export.rows", rows, "model", model);
+		registry.counter("excel.export.cells", cells, "model", model);
+		registry.counter("excel.export.errors", errorRows, "model", model);
+	}
+
+	@Override
+	public void selectionCacheAccessed(Class<?> providerClass, String type, boolean hit) {
+		registry.counter("excel.selection.cache", 1, "result", hit ? "hit" : "miss");
+	}
+
+	@Override
+	public void bytesWritten(long bytes) {
+		registry.counter("excel.export.bytes", bytes);
+	}
+
+}
@@ -0,0 +1,30 @@
+package com.github.mrpanyu.excel;
+
+/**
+ * 不做任何处理的监控实现，未设置监控时使用；也可以继承本类只覆盖关心的方法
+ */
+public class NoOpExcelMetricsListener implements ExcelMetricsListener {
+
+	@Override
+	public void phaseCompleted(ExcelMetricsPhase phase, int sheetIndex, long nanos) {
+	}
+
+	@Override
+	public void sheetImported(int sheetIndex, Class<?> modelClass, int rows, long cells, int errorRows,
+			long nanos) {
+	}
+
+	@Override
+	public void sheetExported(int sheetIndex, Class<?> modelClass, int rows, long cells, int errorRows,
+			long nanos) {
+	}
+
+	@Override
+	public void selectionCacheAccessed(Class<?> providerClass, String type, boolean hit) {
+	}
+
+	@Override
+	public void bytesWritten(long bytes) {
+	}
+
+}
@@ -0,0 +1,95 @@
+package com.github.mrpanyu.excel;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 并行执行一组任务，结果按任务顺序返回
+ * <p>
+ * 未指定线程池时，在支持虚拟线程的JVM（Java 21以上）上使用虚拟线程（通过反射获取，工具本身兼容Java 6），否则按CPU核数创建临时的守护线程池，执行完后关闭。
+ */
+final class ParallelTasks {
+
+	/**
+	 * 执行任务并按顺序返回结果，任一任务失败时取消其余任务并抛出该异常
+	 *
+	 * @param executor 线程池，为null时使用临时线程池
+	 * @param tasks    任务列表
+	 */
+	static <T> List<T> invokeAll(ExecutorService executor, List<? extends Callable<T>> tasks) {
+		ExecutorService ownExecutor = null;
+		if (executor == null) {
+			ownExecutor = newDefaultExecutor(tasks.size());
+			executor = ownExecutor;
+		}
+		List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size());
+		try {
+			for (Callable<T> task : tasks) {
+				futures.add(executor.submit(task));
+			}
+			List<T> results = new ArrayList<T>(tasks.size());
+			for (Future<T> future : futures) {
+				results.add(getResult(future));
+			}
+			return results;
+		} finally {
+			for (Future<T> future : futures) {
+				future.cancel(true);
+			}
+			if (ownExecutor != null) {
+				ownExecutor.shutdownNow();
+			}
+		}
+	}
+
+	/** 等待任务完成并返回结果，任务抛出的异常原样抛出（受检异常包装为RuntimeException） */
+	static <T> T getResult(Future<T> future) {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+	}
+
+	/** 创建临时线程池，优先使用虚拟线程 */
+	static ExecutorService newDefaultExecutor(int taskCount) {
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		} catch (Exception e) {
+			// 不支持虚拟线程
+		}
+		int threads = Math.max(1, Math.min(taskCount, Runtime.getRuntime().availableProcessors()));
+		return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "excel-parallel-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	private ParallelTasks() {
+	}
+
+}
@@ -0,0 +1,110 @@
+package com.github.mrpanyu.excel;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.xml.sax.ContentHandler;
+
+/**
+ * 流式导入时读取xlsx文件的公共部分
+ * <p>
+ * 输入流先写入临时文件，避免OPCPackage将整个压缩包解压到内存中，关闭时删除临时文件。
+ */
+class StreamingWorkbookReader implements Closeable {
+
+	private File tempFile;
+	private OPCPackage pkg;
+	private XSSFReader reader;
+	private ReadOnlySharedStringsTable strings;
+	private StylesTable styles;
+	/** 各sheet页共用，内部按格式字符串缓存解析后的格式 */
+	private DataFormatter dataFormatter = new DataFormatter();
+
+	StreamingWorkbookReader(InputStream excelInput) throws Exception {
+		this(excelInput, null);
+	}
+
+	/** 按导入选项检查文件解压后的大小（{@link ExcelImportOptions#getMaxUncompressedBytes()}），options为null时不检查 */
+	StreamingWorkbookReader(InputStream excelInput, ExcelImportOptions options) throws Exception {
+		try {
+			tempFile = File.createTempFile("excel-imp-", ".xlsx");
+			copyToFile(excelInput, tempFile);
+			ExcelImportLimits.checkUncompressedSize(options, tempFile);
+			pkg = OPCPackage.open(tempFile, PackageAccess.READ);
+			reader = new XSSFReader(pkg);
+			strings = new ReadOnlySharedStringsTable(pkg);
+			styles = reader.getStylesTable();
+		} catch (Exception e) {
+			close();
+			throw e;
+		}
+	}
+
+	/** 按顺序获取各sheet页的XML内容，调用方负责关闭 */
+	Iterator<InputStream> getSheetsData() throws Exception {
+		return reader.getSheetsData();
+	}
+
+	/** 获取指定序号sheet页的XML内容，调用方负责关闭 */
+	InputStream getSheetData(int sheetIndex) throws Exception {
+		Iterator<InputStream> sheetIterator = reader.getSheetsData();
+		for (int i = 0; sheetIterator.hasNext(); i++) {
+			InputStream sheetInput = sheetIterator.next();
+			if (i == sheetIndex) {
+				return sheetInput;
+			}
+			sheetInput.close();
+		}
+		throw new IllegalArgumentException("Excel文件中不存在第" + (sheetIndex + 1) + "个sheet页");
+	}
+
+	/** 创建解析sheet页XML的处理器，单元格按样式格式化为字符串后交给sheetContentsHandler */
+	ContentHandler createSheetXMLHandler(SheetContentsHandler sheetContentsHandler) {
+		return createSheetXMLHandler(sheetContentsHandler, dataFormatter);
+	}
+
+	/** 使用指定的格式化器创建解析sheet页XML的处理器，并行解析多个sheet页时每个sheet页使用单独的格式化器 */
+	ContentHandler createSheetXMLHandler(SheetContentsHandler sheetContentsHandler, DataFormatter dataFormatter) {
+		return new XSSFSheetXMLHandler(styles, strings, sheetContentsHandler, dataFormatter, false);
+	}
+
+	@Override
+	public void close() {
+		if (pkg != null) {
+			pkg.revert();
+			pkg = null;
+		}
+		if (tempFile != null) {
+			tempFile.delete();
+			tempFile = null;
+		}
+	}
+
+	/** 将输入流内容写入文件 */
+	private static void copyToFile(InputStream in, File file) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			byte[] buffer = new byte[8192];
+			int len;
+			while ((len = in.read(buffer)) != -1) {
+				out.write(buffer, 0, len);
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+}
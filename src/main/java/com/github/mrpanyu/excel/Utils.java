@@ -3,6 +3,8 @@ package com.github.mrpanyu.excel;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 
 class Utils {
 
@@ -41,7 +43,29 @@ class Utils {
 	}
 
 	public static Date parseDate(String dateStr, String format) throws ParseException {
-		return new SimpleDateFormat(format).parse(dateStr);
+		return getDateFormat(format).parse(dateStr);
+	}
+
+	public static String formatDate(Date date, String format) {
+		return getDateFormat(format).format(date);
+	}
+
+	/** 按格式缓存的日期格式，SimpleDateFormat不是线程安全的，每个线程一份 */
+	private static final ThreadLocal<Map<String, SimpleDateFormat>> DATE_FORMATS = new ThreadLocal<Map<String, SimpleDateFormat>>() {
+		@Override
+		protected Map<String, SimpleDateFormat> initialValue() {
+			return new HashMap<String, SimpleDateFormat>();
+		}
+	};
+
+	private static SimpleDateFormat getDateFormat(String format) {
+		Map<String, SimpleDateFormat> dateFormats = DATE_FORMATS.get();
+		SimpleDateFormat dateFormat = dateFormats.get(format);
+		if (dateFormat == null) {
+			dateFormat = new SimpleDateFormat(format);
+			dateFormats.put(format, dateFormat);
+		}
+		return dateFormat;
 	}
 
 }
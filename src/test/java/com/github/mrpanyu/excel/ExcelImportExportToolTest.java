@@ -1,14 +1,31 @@
 package com.github.mrpanyu.excel;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.math.BigDecimal;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Assert;
 import org.junit.Test;
 
 public class ExcelImportExportToolTest {
@@ -62,6 +79,174 @@ public class ExcelImportExportToolTest {
 		}
 	}
 
+	/** 流式导入示例，结果应与普通导入一致 */
+	@Test
+	public void testImportStreaming() throws Exception {
+		InputStream in = ExcelImportExportToolTest.class.getResourceAsStream("test-import.xlsx");
+		InputStream in2 = ExcelImportExportToolTest.class.getResourceAsStream("test-import.xlsx");
+		try {
+			List<List<Object>> models = ExcelImportExportTools.impStreaming(in, DemoUserExcelModel.class,
+					DemoUserExperienceExcelModel.class);
+			List<List<Object>> expected = ExcelImportExportTools.imp(in2, DemoUserExcelModel.class,
+					DemoUserExperienceExcelModel.class);
+			for (int i = 0; i < expected.size(); i++) {
+				Assert.assertEquals(expected.get(i).size(), models.get(i).size());
+				for (int j = 0; j < expected.get(i).size(); j++) {
+					ExcelModelBase expectedModel = (ExcelModelBase) expected.get(i).get(j);
+					ExcelModelBase model = (ExcelModelBase) models.get(i).get(j);
+					Assert.assertEquals(expectedModel.toString(), model.toString());
+					// 校验错误的顺序不固定，按集合比较
+					Assert.assertEquals(new HashSet<String>(expectedModel.getAllErrors()),
+							new HashSet<String>(model.getAllErrors()));
+				}
+			}
+		} finally {
+			in.close();
+			in2.close();
+		}
+	}
+
+	/** 并行导入各sheet页示例，结果与普通导入一致 */
+	@Test
+	public void testImportParallel() throws Exception {
+		byte[] data = readResource("test-import.xlsx");
+		List<List<Object>> expected = ExcelImportExportTools.imp(data, DemoUserExcelModel.class,
+				DemoUserExperienceExcelModel.class);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<List<Object>> models = ExcelImportExportTools.imp(ExcelImportOptions.parallel(executor), data,
+					DemoUserExcelModel.class, DemoUserExperienceExcelModel.class);
+			List<List<Object>> streamingModels = ExcelImportExportTools.impStreaming(ExcelImportOptions.parallel(),
+					new ByteArrayInputStream(data), DemoUserExcelModel.class, DemoUserExperienceExcelModel.class);
+			Assert.assertEquals(expected.toString(), models.toString());
+			Assert.assertEquals(expected.toString(), streamingModels.toString());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/** 行转换流水线，结果与逐行导入一致且保持行顺序 */
+	@Test
+	public void testImportPipeline() throws Exception {
+		byte[] data = readResource("test-import.xlsx");
+		List<List<Object>> expected = ExcelImportExportTools.imp(data, DemoUserExcelModel.class,
+				DemoUserExperienceExcelModel.class);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			ExcelImportOptions options = ExcelImportOptions.pipeline(executor);
+			options.setBatchSize(2);
+			List<List<Object>> models = ExcelImportExportTools.imp(options, data, DemoUserExcelModel.class,
+					DemoUserExperienceExcelModel.class);
+			List<List<Object>> streamingModels = ExcelImportExportTools.impStreaming(options,
+					new ByteArrayInputStream(data), DemoUserExcelModel.class, DemoUserExperienceExcelModel.class);
+			Assert.assertEquals(expected.toString(), models.toString());
+			Assert.assertEquals(expected.toString(), streamingModels.toString());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/** 校验选项：关闭校验、只校验列属性、包装默认校验器统计校验的行数 */
+	@Test
+	public void testImportValidation() throws Exception {
+		byte[] data = readResource("test-import.xlsx");
+		List<Object> expected = ExcelImportExportTools.imp(data, DemoUserExcelModel.class).get(0);
+		DemoUserExcelModel invalidUser = (DemoUserExcelModel) expected.get(3);
+		Assert.assertTrue(invalidUser.hasFieldError("userName"));
+
+		ExcelImportOptions options = new ExcelImportOptions();
+		options.setValidation(false);
+		List<Object> models = ExcelImportExportTools.imp(options, data, DemoUserExcelModel.class).get(0);
+		Assert.assertFalse(((DemoUserExcelModel) models.get(3)).hasFieldError("userName"));
+
+		final int[] validatedCount = new int[1];
+		final ExcelBatchValidator columnsValidator = new DefaultExcelBatchValidator(true);
+		options = new ExcelImportOptions();
+		options.setBatchSize(3);
+		options.setValidator(new ExcelBatchValidator() {
+			@Override
+			public void validate(Class<?> modelClass, List<? extends ExcelModelBase> models) {
+				validatedCount[0] += models.size();
+				columnsValidator.validate(modelClass, models);
+			}
+		});
+		models = ExcelImportExportTools.imp(options, data, DemoUserExcelModel.class).get(0);
+		Assert.assertEquals(expected.size(), validatedCount[0]);
+		Assert.assertEquals(expected.toString(), models.toString());
+		Assert.assertEquals(new HashSet<String>(invalidUser.getAllErrors()),
+				new HashSet<String>(((DemoUserExcelModel) models.get(3)).getAllErrors()));
+	}
+
+	/** 原始值按列保存，可以只为有错误的行保留 */
+	@Test
+	public void testOriginalValues() throws Exception {
+		byte[] data = readResource("test-import.xlsx");
+		List<Object> models = ExcelImportExportTools.imp(data, DemoUserExcelModel.class).get(0);
+		DemoUserExcelModel user = (DemoUserExcelModel) models.get(0);
+		Assert.assertEquals("100001", user.getOriginalValue("userCode"));
+		user.setOriginalValue("remark", "备注");
+		Assert.assertEquals("备注", user.getOriginalValue("remark"));
+
+		ExcelImportOptions options = new ExcelImportOptions();
+		options.setOriginalValuesOnErrorOnly(true);
+		models = ExcelImportExportTools.imp(options, data, DemoUserExcelModel.class).get(0);
+		Assert.assertNull(((DemoUserExcelModel) models.get(0)).getOriginalValue("userCode"));
+		Assert.assertEquals("100004", ((DemoUserExcelModel) models.get(3)).getOriginalValue("userCode"));
+	}
+
+	/** 导入游标示例，按批获取数据（如分批写入数据库） */
+	@Test
+	public void testImportCursor() throws Exception {
+		InputStream in = ExcelImportExportToolTest.class.getResourceAsStream("test-import.xlsx");
+		InputStream in2 = ExcelImportExportToolTest.class.getResourceAsStream("test-import.xlsx");
+		ExcelImportCursor<DemoUserExperienceExcelModel> cursor = null;
+		try {
+			List<Object> expected = ExcelImportExportTools.imp(in2, null, DemoUserExperienceExcelModel.class).get(1);
+			cursor = ExcelImportExportTools.impCursor(in, 1, DemoUserExperienceExcelModel.class);
+			List<DemoUserExperienceExcelModel> models = new ArrayList<DemoUserExperienceExcelModel>();
+			List<DemoUserExperienceExcelModel> batch;
+			while (!(batch = cursor.next(2)).isEmpty()) {
+				models.addAll(batch);
+			}
+			Assert.assertEquals(expected.size(), models.size());
+			for (int i = 0; i < expected.size(); i++) {
+				Assert.assertEquals(expected.get(i).toString(), models.get(i).toString());
+			}
+		} finally {
+			if (cursor != null) {
+				cursor.close();
+			}
+			in.close();
+			in2.close();
+		}
+	}
+
+	/** 按导入选项打开游标，批大小、校验开关及进度与其他导入方式一致 */
+	@Test
+	public void testImportCursorOptions() throws Exception {
+		byte[] data = readResource("test-import.xlsx");
+		ExcelImportOptions options = new ExcelImportOptions();
+		options.setBatchSize(3);
+		options.setValidation(false);
+		List<Object> expected = ExcelImportExportTools.imp(options, data, DemoUserExcelModel.class).get(0);
+		options.setProgress(new ExcelProgress());
+		ExcelImportCursor<DemoUserExcelModel> cursor = ExcelImportExportTools.impCursor(options,
+				new ByteArrayInputStream(data), 0, DemoUserExcelModel.class);
+		try {
+			List<DemoUserExcelModel> models = new ArrayList<DemoUserExcelModel>();
+			while (cursor.hasNext()) {
+				models.add(cursor.next());
+			}
+			Assert.assertEquals(expected.toString(), models.toString());
+			for (int i = 0; i < models.size(); i++) {
+				Assert.assertEquals(((DemoUserExcelModel) expected.get(i)).hasError(), models.get(i).hasError());
+			}
+			Assert.assertEquals(models.size(), options.getProgress().getProcessedRows(0));
+		} finally {
+			cursor.close();
+		}
+	}
+
 	/** 导出示例 */
 	@Test
 	public void testExport() throws Exception {
@@ -97,6 +282,797 @@ public class ExcelImportExportToolTest {
 		byte[] exportData = ExcelImportExportTools.exp(models, DemoUserExcelModel.class,
 				DemoUserExperienceExcelModel.class);
 		writeToFile("test-export.xlsx", exportData);
+
+		// 相同的样式在各列及各sheet页之间共用
+		XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(exportData));
+		try {
+			Assert.assertTrue(wb.getNumCellStyles() < 20);
+		} finally {
+			wb.close();
+		}
+	}
+
+	/** 流式导出示例，导出的文件可以再次导入 */
+	@Test
+	public void testExportStreaming() throws Exception {
+		InputStream in = ExcelImportExportToolTest.class.getResourceAsStream("test-import.xlsx");
+		try {
+			List<List<Object>> models = ExcelImportExportTools.imp(in, DemoUserExcelModel.class,
+					DemoUserExperienceExcelModel.class);
+			ExcelExportOptions options = ExcelExportOptions.streaming();
+			options.setRowAccessWindowSize(2);
+			byte[] exportData = ExcelImportExportTools.exp(models, options, DemoUserExcelModel.class,
+					DemoUserExperienceExcelModel.class);
+			List<List<Object>> reimported = ExcelImportExportTools.imp(exportData, DemoUserExcelModel.class,
+					DemoUserExperienceExcelModel.class);
+			for (int i = 0; i < models.size(); i++) {
+				Assert.assertEquals(models.get(i).size(), reimported.get(i).size());
+				for (int j = 0; j < models.get(i).size(); j++) {
+					Assert.assertEquals(models.get(i).get(j).toString(), reimported.get(i).get(j).toString());
+				}
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	/** 并行导出各sheet页，结果与串行流式导出一致 */
+	@Test
+	public void testExportParallel() throws Exception {
+		byte[] data = readResource("test-import.xlsx");
+		List<List<Object>> models = ExcelImportExportTools.imp(data, DemoUserExcelModel.class,
+				DemoUserExperienceExcelModel.class);
+		ExcelExportOptions serialOptions = ExcelExportOptions.streaming();
+		serialOptions.setRowAccessWindowSize(2);
+		byte[] expected = ExcelImportExportTools.exp(models, serialOptions, DemoUserExcelModel.class,
+				DemoUserExperienceExcelModel.class);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			ExcelExportOptions options = ExcelExportOptions.parallel(executor);
+			options.setRowAccessWindowSize(2);
+			byte[] exportData = ExcelImportExportTools.exp(models, options, DemoUserExcelModel.class,
+					DemoUserExperienceExcelModel.class);
+			Assert.assertEquals(
+					ExcelImportExportTools.imp(expected, DemoUserExcelModel.class, DemoUserExperienceExcelModel.class)
+							.toString(),
+					ExcelImportExportTools.imp(exportData, DemoUserExcelModel.class, DemoUserExperienceExcelModel.class)
+							.toString());
+			XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(exportData));
+			try {
+				Assert.assertEquals(3, wb.getNumberOfSheets());
+				Assert.assertEquals("REF", wb.getSheetName(2));
+			} finally {
+				wb.close();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/** 只导出错误行，或将错误信息标注到原文件中 */
+	@Test
+	public void testExportErrors() throws Exception {
+		byte[] data = readResource("test-import.xlsx");
+		List<List<Object>> models = ExcelImportExportTools.imp(data, DemoUserExcelModel.class,
+				DemoUserExperienceExcelModel.class);
+		DemoUserExcelModel invalidUser = (DemoUserExcelModel) models.get(0).get(3);
+		Assert.assertEquals(2, ((DemoUserExcelModel) models.get(0).get(0)).getRowNumber());
+		Assert.assertEquals(5, invalidUser.getRowNumber());
+		int columnCount = ExcelModelDescriptor.of(DemoUserExcelModel.class).columns.size();
+
+		byte[] errorData = ExcelImportExportTools.exp(models, ExcelExportOptions.errorRowsOnly(),
+				DemoUserExcelModel.class, DemoUserExperienceExcelModel.class);
+		XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(errorData));
+		try {
+			Assert.assertEquals(1, wb.getSheetAt(0).getLastRowNum());
+			Assert.assertEquals("100004", wb.getSheetAt(0).getRow(1).getCell(0).getStringCellValue());
+			Assert.assertTrue(wb.getSheetAt(0).getRow(1).getCell(columnCount).getStringCellValue()
+					.startsWith("第5行："));
+		} finally {
+			wb.close();
+		}
+
+		byte[] patchedData = ExcelImportExportTools.expErrorsInPlace(data, models, DemoUserExcelModel.class,
+				DemoUserExperienceExcelModel.class);
+		wb = new XSSFWorkbook(new ByteArrayInputStream(patchedData));
+		try {
+			Assert.assertEquals("100001", wb.getSheetAt(0).getRow(1).getCell(0).getStringCellValue());
+			Assert.assertNull(wb.getSheetAt(0).getRow(1).getCell(columnCount));
+			Assert.assertEquals(Utils.join(invalidUser.getAllErrors(), ";"),
+					wb.getSheetAt(0).getRow(4).getCell(columnCount).getStringCellValue());
+		} finally {
+			wb.close();
+		}
+		// 标注后的文件仍可以再次导入
+		Assert.assertEquals(models.get(0).size(),
+				ExcelImportExportTools.imp(patchedData, DemoUserExcelModel.class).get(0).size());
+	}
+
+	/** 监控接口示例，按指标名累计计时次数及计数 */
+	@Test
+	public void testMetricsListener() throws Exception {
+		final Map<String, Long> metrics = new ConcurrentHashMap<String, Long>();
+		ExcelImportExportTools.setMetricsListener(new MeterRegistryExcelMetricsListener(
+				new MeterRegistryExcelMetricsListener.Registry() {
+					@Override
+					public void timer(String name, long nanos, String... tags) {
+						add(name + Arrays.toString(tags), 1);
+					}
+
+					@Override
+					public void counter(String name, long amount, String... tags) {
+						add(name + Arrays.toString(tags), amount);
+					}
+
+					private synchronized void add(String key, long amount) {
+						Long value = metrics.get(key);
+						metrics.put(key, value == null ? amount : value + amount);
+					}
+				}));
+		try {
+			List<List<Object>> models = ExcelImportExportTools.imp(readResource("test-import.xlsx"),
+					DemoUserExcelModel.class, DemoUserExperienceExcelModel.class);
+			Assert.assertEquals(Long.valueOf(1), metrics.get("excel.phase[phase, import_open]"));
+			Assert.assertEquals(Long.valueOf(2), metrics.get("excel.phase[phase, import_parse]"));
+			Assert.assertEquals(Long.valueOf(models.get(0).size()),
+					metrics.get("excel.import.rows[model, DemoUserExcelModel]"));
+			Assert.assertEquals(Long.valueOf(1), metrics.get("excel.import.errors[model, DemoUserExcelModel]"));
+
+			byte[] data = ExcelImportExportTools.exp(models, DemoUserExcelModel.class,
+					DemoUserExperienceExcelModel.class);
+			Assert.assertEquals(Long.valueOf(2), metrics.get("excel.phase[phase, export_rows]"));
+			Assert.assertEquals(Long.valueOf(1), metrics.get("excel.phase[phase, export_serialize]"));
+			Assert.assertEquals(Long.valueOf(models.get(0).size()),
+					metrics.get("excel.export.rows[model, DemoUserExcelModel]"));
+			Assert.assertEquals(Long.valueOf(data.length), metrics.get("excel.export.bytes[]"));
+		} finally {
+			ExcelImportExportTools.setMetricsListener(null);
+		}
+	}
+
+	/** 直接导出到输出流示例（如Servlet响应），分块写出 */
+	@Test
+	public void testExportToOutputStream() throws Exception {
+		ExcelExportOptions options = new ExcelExportOptions();
+		options.setOutputChunkSize(1024);
+		List<List<Object>> data = new ArrayList<List<Object>>();
+		data.add(new ArrayList<Object>());
+		data.add(new ArrayList<Object>());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ExcelImportExportTools.exp(data, options, out, DemoUserExcelModel.class, DemoUserExperienceExcelModel.class);
+		List<List<Object>> models = ExcelImportExportTools.imp(out.toByteArray(), DemoUserExcelModel.class,
+				DemoUserExperienceExcelModel.class);
+		Assert.assertEquals(2, models.size());
+		Assert.assertTrue(models.get(0).isEmpty());
+	}
+
+	/** 逐行提供数据的导出示例（如从数据库游标读取），数据无需全部加载到内存 */
+	@Test
+	public void testExportIterator() throws Exception {
+		final int total = 1000;
+		Iterator<Object> userIterator = new Iterator<Object>() {
+			int count = 0;
+
+			@Override
+			public boolean hasNext() {
+				return count < total;
+			}
+
+			@Override
+			public Object next() {
+				DemoUserExcelModel user = new DemoUserExcelModel();
+				user.setUserCode(String.valueOf(100000 + count));
+				user.setUserName("用户" + count);
+				user.setIdcardNo("120102199205200003");
+				user.setMobile("13172727272");
+				user.setGender(String.valueOf(count % 2));
+				count++;
+				return user;
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+		List<Iterator<?>> data = new ArrayList<Iterator<?>>();
+		data.add(userIterator);
+		byte[] exportData = ExcelImportExportTools.expIterator(data, ExcelExportOptions.streaming(),
+				DemoUserExcelModel.class);
+		List<Object> models = ExcelImportExportTools.imp(exportData, DemoUserExcelModel.class).get(0);
+		Assert.assertEquals(total, models.size());
+		Assert.assertEquals("用户999", ((DemoUserExcelModel) models.get(total - 1)).getUserName());
+		Assert.assertFalse(((DemoUserExcelModel) models.get(total - 1)).hasError());
+	}
+
+	/** 进度报告及取消，取消后抛出ExcelCancelledException */
+	@Test
+	public void testProgressAndCancel() throws Exception {
+		List<Object> users = new ArrayList<Object>();
+		for (int i = 0; i < 2 * ExcelProgress.REPORT_ROWS; i++) {
+			DemoUserExcelModel user = new DemoUserExcelModel();
+			user.setUserCode(String.valueOf(100000 + i));
+			user.setUserName("用户" + i);
+			users.add(user);
+		}
+		List<List<Object>> data = new ArrayList<List<Object>>();
+		data.add(users);
+		ExcelExportOptions exportOptions = ExcelExportOptions.streaming();
+		exportOptions.setProgress(new ExcelProgress());
+		byte[] exportData = ExcelImportExportTools.exp(data, exportOptions, DemoUserExcelModel.class);
+		Assert.assertEquals(users.size(), exportOptions.getProgress().getProcessedRows(0));
+
+		ExcelImportOptions importOptions = new ExcelImportOptions();
+		importOptions.setBatchSize(100);
+		importOptions.setProgress(new ExcelProgress());
+		ExcelImportExportTools.impStreaming(importOptions, new ByteArrayInputStream(exportData),
+				DemoUserExcelModel.class);
+		Assert.assertEquals(users.size(), importOptions.getProgress().getTotalProcessedRows());
+
+		// 处理完第一批后取消
+		final List<Integer> reported = new ArrayList<Integer>();
+		importOptions.setProgress(new ExcelProgress() {
+			@Override
+			protected void onProgress(int sheetIndex, int processedRows) {
+				reported.add(processedRows);
+				cancel();
+			}
+		});
+		try {
+			ExcelImportExportTools.imp(importOptions, exportData, DemoUserExcelModel.class);
+			Assert.fail();
+		} catch (ExcelCancelledException e) {
+			Assert.assertEquals(1, reported.size());
+			Assert.assertEquals(100, importOptions.getProgress().getProcessedRows(0));
+		}
+	}
+
+	/** 导入限制，普通导入及流式导入超出限制时都抛出ExcelImportLimitException */
+	@Test
+	public void testImportLimits() throws Exception {
+		byte[] data = readResource("test-import.xlsx");
+		List<List<Object>> expected = ExcelImportExportTools.imp(data, DemoUserExcelModel.class);
+
+		ExcelImportOptions options = new ExcelImportOptions();
+		options.setMaxConsecutiveBlankRows(1);
+		Assert.assertEquals(expected.toString(),
+				ExcelImportExportTools.imp(options, data, DemoUserExcelModel.class).toString());
+		Assert.assertEquals(expected.toString(), ExcelImportExportTools
+				.impStreaming(options, new ByteArrayInputStream(data), DemoUserExcelModel.class).toString());
+
+		List<ExcelImportOptions> invalidOptions = new ArrayList<ExcelImportOptions>();
+		invalidOptions.add(new ExcelImportOptions());
+		invalidOptions.get(0).setMaxRows(2);
+		invalidOptions.add(new ExcelImportOptions());
+		invalidOptions.get(1).setMaxColumns(3);
+		invalidOptions.add(new ExcelImportOptions());
+		invalidOptions.get(2).setMaxCellLength(5);
+		invalidOptions.add(new ExcelImportOptions());
+		invalidOptions.get(3).setMaxUncompressedBytes(1024);
+		for (ExcelImportOptions invalid : invalidOptions) {
+			try {
+				ExcelImportExportTools.imp(invalid, data, DemoUserExcelModel.class);
+				Assert.fail();
+			} catch (ExcelImportLimitException e) {
+				// 超出限制
+			}
+			try {
+				ExcelImportExportTools.impStreaming(invalid, new ByteArrayInputStream(data), DemoUserExcelModel.class);
+				Assert.fail();
+			} catch (ExcelImportLimitException e) {
+				// 超出限制
+			}
+			ExcelImportCursor<DemoUserExcelModel> cursor = null;
+			try {
+				cursor = ExcelImportExportTools.impCursor(invalid, new ByteArrayInputStream(data), 0,
+						DemoUserExcelModel.class);
+				while (cursor.hasNext()) {
+					cursor.next();
+				}
+				Assert.fail();
+			} catch (ExcelImportLimitException e) {
+				// 超出限制
+			} finally {
+				if (cursor != null) {
+					cursor.close();
+				}
+			}
+		}
+	}
+
+	/** 只有格式没有值的行（如导入模板中预设样式的行）不导入，连续空行达到上限后停止读取 */
+	@Test
+	public void testImportBlankRows() throws Exception {
+		byte[] template = ExcelImportExportTools.impTemplate(DemoUserExcelModel.class);
+		Assert.assertTrue(ExcelImportExportTools.imp(template, DemoUserExcelModel.class).get(0).isEmpty());
+		Assert.assertTrue(ExcelImportExportTools
+				.impStreaming(new ByteArrayInputStream(template), DemoUserExcelModel.class).get(0).isEmpty());
+
+		// 空行之后的数据：不限制连续空行时导入，连续空行达到上限时忽略
+		XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(template));
+		try {
+			wb.getSheetAt(0).createRow(200).createCell(0).setCellValue("100001");
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			wb.write(out);
+			template = out.toByteArray();
+		} finally {
+			wb.close();
+		}
+		List<Object> models = ExcelImportExportTools.imp(template, DemoUserExcelModel.class).get(0);
+		Assert.assertEquals(1, models.size());
+		Assert.assertEquals(201, ((DemoUserExcelModel) models.get(0)).getRowNumber());
+		Assert.assertEquals(1, ExcelImportExportTools
+				.impStreaming(new ByteArrayInputStream(template), DemoUserExcelModel.class).get(0).size());
+		ExcelImportOptions options = new ExcelImportOptions();
+		options.setMaxConsecutiveBlankRows(150);
+		Assert.assertTrue(ExcelImportExportTools.imp(options, template, DemoUserExcelModel.class).get(0).isEmpty());
+		Assert.assertTrue(ExcelImportExportTools
+				.impStreaming(options, new ByteArrayInputStream(template), DemoUserExcelModel.class).get(0)
+				.isEmpty());
+		ExcelImportCursor<DemoUserExcelModel> cursor = ExcelImportExportTools.impCursor(options,
+				new ByteArrayInputStream(template), 0, DemoUserExcelModel.class);
+		try {
+			Assert.assertFalse(cursor.hasNext());
+		} finally {
+			cursor.close();
+		}
+
+		// 最大行数按数据行数检查，与数据所在的行号无关
+		options = new ExcelImportOptions();
+		options.setMaxRows(1);
+		Assert.assertEquals(1, ExcelImportExportTools.imp(options, template, DemoUserExcelModel.class).get(0).size());
+		Assert.assertEquals(1, ExcelImportExportTools
+				.impStreaming(options, new ByteArrayInputStream(template), DemoUserExcelModel.class).get(0).size());
+		cursor = ExcelImportExportTools.impCursor(options, new ByteArrayInputStream(template), 0,
+				DemoUserExcelModel.class);
+		try {
+			Assert.assertEquals(1, cursor.next(10).size());
+		} finally {
+			cursor.close();
+		}
+	}
+
+	/** 级联下拉的值需要与上级的值匹配 */
+	@Test
+	public void testCascadeSelection() throws Exception {
+		List<List<Object>> data = new ArrayList<List<Object>>();
+		data.add(new ArrayList<Object>());
+		DemoUserExcelModel user = new DemoUserExcelModel();
+		user.setHomeProvince("130000");
+		user.setHomeCity("130200");
+		data.get(0).add(user);
+		DemoUserExcelModel mismatchUser = new DemoUserExcelModel();
+		mismatchUser.setHomeProvince("120000");
+		mismatchUser.setHomeCity("130200");
+		data.get(0).add(mismatchUser);
+		byte[] exportData = ExcelImportExportTools.exp(data, DemoUserExcelModel.class);
+		List<Object> models = ExcelImportExportTools.imp(exportData, DemoUserExcelModel.class).get(0);
+		DemoUserExcelModel imported = (DemoUserExcelModel) models.get(0);
+		Assert.assertFalse(imported.hasFieldError("homeCity"));
+		Assert.assertEquals("130200", imported.getHomeCity());
+		DemoUserExcelModel mismatchImported = (DemoUserExcelModel) models.get(1);
+		Assert.assertTrue(mismatchImported.hasFieldError("homeCity"));
+		Assert.assertEquals("120000", mismatchImported.getHomeProvince());
+	}
+
+	/** 下拉选项缓存：过期后重新加载，可以主动使缓存失效 */
+	@Test
+	public void testSelectionCache() throws Exception {
+		final int[] loads = new int[1];
+		ExcelColumnSelectionProvider provider = new ExcelColumnSelectionProvider() {
+			@Override
+			public List<ExcelColumnSelectionItem> selectionItems(String type) {
+				loads[0]++;
+				return new DemoExcelColumnSelectionProvider().selectionItems(type);
+			}
+		};
+		final long[] now = new long[1];
+		DefaultExcelColumnSelectionCache cache = new DefaultExcelColumnSelectionCache(10, 1000) {
+			@Override
+			protected long currentTimeMillis() {
+				return now[0];
+			}
+		};
+		Assert.assertEquals(2, cache.get(provider, "gender").size());
+		cache.get(provider, "gender");
+		Assert.assertEquals(1, loads[0]);
+		Assert.assertEquals(1, cache.getHitCount());
+		now[0] = 1000;
+		cache.get(provider, "gender");
+		Assert.assertEquals(2, loads[0]);
+		cache.invalidate(provider.getClass(), "gender");
+		cache.get(provider, "gender");
+		Assert.assertEquals(3, loads[0]);
+		Assert.assertEquals(3, cache.getMissCount());
+
+		// 提前刷新期间失效的项，刷新结果不再放回缓存
+		final List<Runnable> refreshTasks = new ArrayList<Runnable>();
+		cache.setRefreshAfterMillis(500);
+		cache.setRefreshExecutor(new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				refreshTasks.add(command);
+			}
+		});
+		now[0] = 1600;
+		cache.get(provider, "gender");
+		Assert.assertEquals(1, refreshTasks.size());
+		cache.invalidate(provider.getClass(), "gender");
+		refreshTasks.get(0).run();
+		Assert.assertEquals(0, cache.size());
+
+		// 导入导出时使用缓存
+		DefaultExcelColumnSelectionCache toolsCache = new DefaultExcelColumnSelectionCache();
+		ExcelImportExportTools.setSelectionCache(toolsCache);
+		try {
+			ExcelImportExportTools.impTemplate(DemoUserExcelModel.class);
+			ExcelImportExportTools.impTemplate(DemoUserExcelModel.class);
+			Assert.assertEquals(toolsCache.getLoadCount(), toolsCache.getHitCount());
+
+			// 提供者返回null时与不使用缓存一样没有下拉框
+			Assert.assertNull(toolsCache.get(new NullSelectionProvider(), "any"));
+			Assert.assertNull(toolsCache.get(new NullSelectionProvider(), "any"));
+			NullSelectionExcelModel model = new NullSelectionExcelModel();
+			model.setCode("abc");
+			List<Object> sheetData = new ArrayList<Object>();
+			sheetData.add(model);
+			List<List<Object>> data = new ArrayList<List<Object>>();
+			data.add(sheetData);
+			byte[] exportData = ExcelImportExportTools.exp(data, NullSelectionExcelModel.class);
+			XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(exportData));
+			try {
+				Assert.assertEquals(0, wb.getNumberOfNames());
+			} finally {
+				wb.close();
+			}
+			NullSelectionExcelModel imported = (NullSelectionExcelModel) ExcelImportExportTools
+					.imp(exportData, NullSelectionExcelModel.class).get(0).get(0);
+			Assert.assertFalse(imported.hasError());
+			Assert.assertEquals("abc", imported.getCode());
+		} finally {
+			ExcelImportExportTools.setSelectionCache(null);
+		}
+	}
+
+	/** 同一项同时未命中时只加载一次，加载期间失效的结果不放入缓存 */
+	@Test
+	public void testSelectionCacheConcurrentLoad() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final int[] loads = new int[1];
+		final ExcelColumnSelectionProvider provider = new ExcelColumnSelectionProvider() {
+			@Override
+			public List<ExcelColumnSelectionItem> selectionItems(String type) {
+				synchronized (loads) {
+					loads[0]++;
+				}
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+				return new DemoExcelColumnSelectionProvider().selectionItems(type);
+			}
+		};
+		final DefaultExcelColumnSelectionCache cache = new DefaultExcelColumnSelectionCache();
+		final List<List<ExcelColumnSelectionItem>> results = new ArrayList<List<ExcelColumnSelectionItem>>();
+		Thread loader = new Thread() {
+			@Override
+			public void run() {
+				results.add(cache.get(provider, "gender"));
+			}
+		};
+		loader.start();
+		started.await();
+		// 加载期间失效，调用方仍得到结果，但结果不放入缓存
+		cache.invalidate(provider.getClass(), "gender");
+		release.countDown();
+		loader.join();
+		Assert.assertEquals(2, results.get(0).size());
+		Assert.assertEquals(1, loads[0]);
+		Assert.assertEquals(0, cache.size());
+
+		// 没有失效时，并发未命中只加载一次并放入缓存
+		final DefaultExcelColumnSelectionCache cache2 = new DefaultExcelColumnSelectionCache();
+		loads[0] = 0;
+		final CountDownLatch started2 = new CountDownLatch(1);
+		final CountDownLatch release2 = new CountDownLatch(1);
+		final ExcelColumnSelectionProvider provider2 = new ExcelColumnSelectionProvider() {
+			@Override
+			public List<ExcelColumnSelectionItem> selectionItems(String type) {
+				synchronized (loads) {
+					loads[0]++;
+				}
+				started2.countDown();
+				try {
+					release2.await();
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+				return new DemoExcelColumnSelectionProvider().selectionItems(type);
+			}
+		};
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < 3; i++) {
+			Thread thread = new Thread() {
+				@Override
+				public void run() {
+					cache2.get(provider2, "gender");
+				}
+			};
+			threads.add(thread);
+			thread.start();
+		}
+		started2.await();
+		release2.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		Assert.assertEquals(1, loads[0]);
+		Assert.assertEquals(1, cache2.size());
+	}
+
+	/** 有下拉框的数字列解析失败时只记录解析错误，不再提示值不在可选范围内 */
+	@Test
+	public void testSelectionAfterParseError() throws Exception {
+		XSSFWorkbook wb = new XSSFWorkbook();
+		byte[] data;
+		try {
+			Sheet sheet = wb.createSheet();
+			sheet.createRow(0).createCell(0).setCellValue("等级");
+			sheet.createRow(1).createCell(0).setCellValue("abc");
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			wb.write(out);
+			data = out.toByteArray();
+		} finally {
+			wb.close();
+		}
+		List<Object> models = new ArrayList<Object>();
+		models.add(ExcelImportExportTools.imp(data, SelectionNumberExcelModel.class).get(0).get(0));
+		models.add(ExcelImportExportTools
+				.impStreaming(new ByteArrayInputStream(data), SelectionNumberExcelModel.class).get(0).get(0));
+		for (Object model : models) {
+			SelectionNumberExcelModel numberModel = (SelectionNumberExcelModel) model;
+			Assert.assertEquals(Arrays.asList("等级数字格式无法解析"), numberModel.getAllErrors());
+			Assert.assertNull(numberModel.getLevel());
+		}
+	}
+
+	/** 有下拉框的数字列 */
+	@ExcelSheet(name = "等级")
+	@SuppressWarnings("serial")
+	public static class SelectionNumberExcelModel extends ExcelModelBase {
+		@ExcelColumn(name = "等级", selectionProvider = DemoExcelColumnSelectionProvider.class, selectionType = "gender")
+		private Integer level;
+
+		public Integer getLevel() {
+			return level;
+		}
+
+		public void setLevel(Integer level) {
+			this.level = level;
+		}
+	}
+
+	/** 不提供下拉选项（返回null）的提供者 */
+	public static class NullSelectionProvider implements ExcelColumnSelectionProvider {
+		@Override
+		public List<ExcelColumnSelectionItem> selectionItems(String type) {
+			return null;
+		}
+	}
+
+	/** 下拉选项提供者返回null的模型 */
+	@ExcelSheet(name = "无下拉")
+	@SuppressWarnings("serial")
+	public static class NullSelectionExcelModel extends ExcelModelBase {
+		@ExcelColumn(name = "代码", selectionProvider = NullSelectionProvider.class, selectionType = "any")
+		private String code;
+
+		public String getCode() {
+			return code;
+		}
+
+		public void setCode(String code) {
+			this.code = code;
+		}
+	}
+
+	/**
+	 * 普通导入时数字单元格直接按数值读取：保留完整精度（不受显示格式影响），显示为29.00的整数可以导入，日期保留时间部分；
+	 * 小数读到整数属性、非日期格式的数字（如20200102）读到日期属性时，仍按显示的字符串解析
+	 */
+	@Test
+	public void testImportNumericCells() throws Exception {
+		XSSFWorkbook wb = new XSSFWorkbook();
+		byte[] data;
+		try {
+			CellStyle twoDecimals = wb.createCellStyle();
+			twoDecimals.setDataFormat(wb.createDataFormat().getFormat("0.00"));
+			CellStyle dateStyle = wb.createCellStyle();
+			dateStyle.setDataFormat(wb.createDataFormat().getFormat("yyyy-mm-dd"));
+			Sheet sheet = wb.createSheet();
+			Row header = sheet.createRow(0);
+			header.createCell(0).setCellValue("数量");
+			header.createCell(1).setCellValue("比例");
+			header.createCell(2).setCellValue("金额");
+			header.createCell(3).setCellValue("时间");
+			Row row = sheet.createRow(1);
+			row.createCell(0).setCellValue(29);
+			row.getCell(0).setCellStyle(twoDecimals);
+			row.createCell(1).setCellValue(0.123456789);
+			row.getCell(1).setCellStyle(twoDecimals);
+			row.createCell(2).setCellValue(0.1 + 0.2);
+			row.createCell(3).setCellValue(parseDateTime("2020-01-02 03:04:05"));
+			row.getCell(3).setCellStyle(dateStyle);
+			row = sheet.createRow(2);
+			row.createCell(0).setCellValue(29.5);
+			row.createCell(3).setCellValue(20200102);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			wb.write(out);
+			data = out.toByteArray();
+		} finally {
+			wb.close();
+		}
+
+		List<Object> models = ExcelImportExportTools.imp(data, NumericExcelModel.class).get(0);
+		NumericExcelModel model = (NumericExcelModel) models.get(0);
+		Assert.assertFalse(model.hasError());
+		Assert.assertEquals(29, model.getCount());
+		Assert.assertEquals(0.123456789, model.getRatio(), 0);
+		Assert.assertEquals(new BigDecimal("0.3"), model.getAmount());
+		Assert.assertEquals(parseDateTime("2020-01-02 03:04:05"), model.getTime());
+
+		model = (NumericExcelModel) models.get(1);
+		Assert.assertTrue(model.hasFieldError("count"));
+		Assert.assertEquals("29.5", model.getOriginalValue("count"));
+		Assert.assertFalse(model.hasFieldError("time"));
+		Assert.assertEquals(parseDate("2020-01-02"), model.getTime());
+	}
+
+	/** 数字及日期类型的模型，日期属性的格式为yyyyMMdd */
+	@ExcelSheet(name = "数字")
+	@SuppressWarnings("serial")
+	public static class NumericExcelModel extends ExcelModelBase {
+		@ExcelColumn(name = "数量")
+		private int count;
+		@ExcelColumn(name = "比例")
+		private double ratio;
+		@ExcelColumn(name = "金额")
+		private BigDecimal amount;
+		@ExcelColumn(name = "时间", dateFormat = "yyyyMMdd")
+		private Date time;
+
+		public int getCount() {
+			return count;
+		}
+
+		public void setCount(int count) {
+			this.count = count;
+		}
+
+		public double getRatio() {
+			return ratio;
+		}
+
+		public void setRatio(double ratio) {
+			this.ratio = ratio;
+		}
+
+		public BigDecimal getAmount() {
+			return amount;
+		}
+
+		public void setAmount(BigDecimal amount) {
+			this.amount = amount;
+		}
+
+		public Date getTime() {
+			return time;
+		}
+
+		public void setTime(Date time) {
+			this.time = time;
+		}
+	}
+
+	/** @ExcelColumn标注在get/set方法上的模型 */
+	@ExcelSheet(name = "方法标注")
+	@SuppressWarnings("serial")
+	public static class MethodAnnotatedExcelModel extends ExcelModelBase {
+		private String code;
+		private int amount;
+
+		@ExcelColumn(name = "代码")
+		public String getCode() {
+			return code;
+		}
+
+		public void setCode(String code) {
+			this.code = code;
+		}
+
+		public int getAmount() {
+			return amount;
+		}
+
+		@ExcelColumn(name = "数量")
+		public void setAmount(int amount) {
+			this.amount = amount;
+		}
+	}
+
+	/** @ExcelColumn标注在get/set方法上时通过get/set方法读写 */
+	@Test
+	public void testMethodAnnotatedModel() throws Exception {
+		MethodAnnotatedExcelModel model = new MethodAnnotatedExcelModel();
+		model.setCode("A01");
+		model.setAmount(12);
+		List<List<Object>> data = new ArrayList<List<Object>>();
+		data.add(new ArrayList<Object>());
+		data.get(0).add(model);
+		byte[] exportData = ExcelImportExportTools.exp(data, MethodAnnotatedExcelModel.class);
+		List<Object> models = ExcelImportExportTools.imp(exportData, MethodAnnotatedExcelModel.class).get(0);
+		Assert.assertEquals(1, models.size());
+		MethodAnnotatedExcelModel imported = (MethodAnnotatedExcelModel) models.get(0);
+		Assert.assertEquals("A01", imported.getCode());
+		Assert.assertEquals(12, imported.getAmount());
+	}
+
+	/** java.time日期类型与Date的转换（Java 8以上） */
+	@Test
+	public void testJavaTimeTypes() throws Exception {
+		Class<?> localDateClass;
+		try {
+			localDateClass = Class.forName("java.time.LocalDate");
+		} catch (ClassNotFoundException e) {
+			return;
+		}
+		Class<?> localDateTimeClass = Class.forName("java.time.LocalDateTime");
+		Date date = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse("2020-01-02 03:04:05");
+		Object localDate = JavaTimeTypes.fromDate(date, localDateClass);
+		Assert.assertEquals("2020-01-02", localDate.toString());
+		Assert.assertEquals(parseDate("2020-01-02"), JavaTimeTypes.toDate(localDate));
+		Object localDateTime = JavaTimeTypes.fromDate(date, localDateTimeClass);
+		Assert.assertEquals("2020-01-02T03:04:05", localDateTime.toString());
+		Assert.assertEquals(date, JavaTimeTypes.toDate(localDateTime));
+	}
+
+	/** 自动宽度按内容估算，中文按两个字符计算 */
+	@Test
+	public void testAutoWidth() throws Exception {
+		Assert.assertEquals(7, ExcelColumnWidthTracker.displayWidth("abc中文"));
+		Assert.assertEquals(4, ExcelColumnWidthTracker.displayWidth("ab\n中文"));
+		MethodAnnotatedExcelModel model = new MethodAnnotatedExcelModel();
+		model.setCode("一个比较长的代码值");
+		List<List<Object>> data = new ArrayList<List<Object>>();
+		data.add(new ArrayList<Object>());
+		data.get(0).add(model);
+		byte[] exportData = ExcelImportExportTools.exp(data, ExcelExportOptions.streaming(),
+				MethodAnnotatedExcelModel.class);
+		XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(exportData));
+		try {
+			// 第一列为代码列，9个中文字符
+			Assert.assertEquals((18 + 2) * 256, wb.getSheetAt(0).getColumnWidth(0));
+		} finally {
+			wb.close();
+		}
+	}
+
+	private byte[] readResource(String name) throws IOException {
+		InputStream in = ExcelImportExportToolTest.class.getResourceAsStream(name);
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int len;
+			while ((len = in.read(buffer)) != -1) {
+				out.write(buffer, 0, len);
+			}
+			return out.toByteArray();
+		} finally {
+			in.close();
+		}
 	}
 
 	private void writeToFile(String fileName, byte[] data) throws IOException {
@@ -112,4 +1088,8 @@ public class ExcelImportExportToolTest {
 		return new SimpleDateFormat("yyyy-MM-dd").parse(str);
 	}
 
+	private Date parseDateTime(String str) throws ParseException {
+		return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse(str);
+	}
+
 }
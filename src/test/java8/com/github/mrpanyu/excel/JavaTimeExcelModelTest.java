@@ -0,0 +1,81 @@
+package com.github.mrpanyu.excel;
+
+import java.io.ByteArrayInputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * java.time类型属性的导出导入，只在Java 8以上运行（见pom.xml中的java8-tests）
+ */
+public class JavaTimeExcelModelTest {
+
+	/** 导出为日期单元格（按默认格式显示），再导入得到相同的值 */
+	@Test
+	public void testJavaTimeRoundTrip() throws Exception {
+		JavaTimeExcelModel model = new JavaTimeExcelModel();
+		model.setDay(LocalDate.of(2020, 1, 2));
+		model.setTime(LocalDateTime.of(2020, 1, 2, 3, 4, 5));
+		List<Object> sheetData = new ArrayList<Object>();
+		sheetData.add(model);
+		List<List<Object>> data = new ArrayList<List<Object>>();
+		data.add(sheetData);
+		byte[] exportData = ExcelImportExportTools.exp(data, JavaTimeExcelModel.class);
+
+		XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(exportData));
+		try {
+			Cell dayCell = wb.getSheetAt(0).getRow(1).getCell(0);
+			Assert.assertEquals("yyyy-MM-dd", dayCell.getCellStyle().getDataFormatString());
+			Cell timeCell = wb.getSheetAt(0).getRow(1).getCell(1);
+			Assert.assertEquals("yyyy-MM-dd HH:mm:ss", timeCell.getCellStyle().getDataFormatString());
+			Assert.assertEquals(java.sql.Timestamp.valueOf(model.getTime()).getTime(),
+					timeCell.getDateCellValue().getTime());
+		} finally {
+			wb.close();
+		}
+
+		// 普通导入直接读取日期值，流式导入按显示的字符串解析，结果相同
+		JavaTimeExcelModel imported = (JavaTimeExcelModel) ExcelImportExportTools
+				.imp(exportData, JavaTimeExcelModel.class).get(0).get(0);
+		Assert.assertFalse(imported.hasError());
+		Assert.assertEquals(model.getDay(), imported.getDay());
+		Assert.assertEquals(model.getTime(), imported.getTime());
+		imported = (JavaTimeExcelModel) ExcelImportExportTools
+				.impStreaming(new ByteArrayInputStream(exportData), JavaTimeExcelModel.class).get(0).get(0);
+		Assert.assertFalse(imported.hasError());
+		Assert.assertEquals(model.getDay(), imported.getDay());
+		Assert.assertEquals(model.getTime(), imported.getTime());
+	}
+
+	@ExcelSheet(name = "日期")
+	@SuppressWarnings("serial")
+	public static class JavaTimeExcelModel extends ExcelModelBase {
+		@ExcelColumn(name = "日期")
+		private LocalDate day;
+		@ExcelColumn(name = "时间")
+		private LocalDateTime time;
+
+		public LocalDate getDay() {
+			return day;
+		}
+
+		public void setDay(LocalDate day) {
+			this.day = day;
+		}
+
+		public LocalDateTime getTime() {
+			return time;
+		}
+
+		public void setTime(LocalDateTime time) {
+			this.time = time;
+		}
+	}
+
+}